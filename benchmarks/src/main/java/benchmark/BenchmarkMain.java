@@ -0,0 +1,23 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the JMH suites, writing results as JSON to jmh-result.json unless the
+ * arguments pick a different result format or file. Any other JMH option can be
+ * passed through, e.g. a benchmark regex or -p position=opening
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws Exception {
+        List<String> options = new ArrayList<>(Arrays.asList(args));
+        if(!options.contains("-rf")){
+            options.addAll(List.of("-rf", "json"));
+        }
+        if(!options.contains("-rff")){
+            options.addAll(List.of("-rff", "jmh-result.json"));
+        }
+        org.openjdk.jmh.Main.main(options.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,124 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rules queries on ChessGame for the team to move
+ * <p>
+ * ChessGame caches legal moves per position, so the cold variants re-place the
+ * mover's king on its own square first; that leaves the position as it was but
+ * bumps its version, forcing the move list to be regenerated as it would be
+ * after a real move.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+
+    @Param({"opening", "ruyLopez", "middlegame", "kiwipete", "rookEndgame", "pawnEndgame"})
+    public String position;
+
+    private ChessGame game;
+    private ChessBoard board;
+    private ChessGame.TeamColor mover;
+    private ChessPosition kingSquare;
+    private ChessPiece king;
+    private ChessPosition[] moverSquares;
+    private ChessMove firstMove;
+
+    @Setup
+    public void setup() {
+        game = Positions.load(position);
+        board = game.getBoard();
+        mover = game.getTeamTurn();
+        kingSquare = board.getKingLocation(mover);
+        king = board.getPiece(kingSquare);
+        moverSquares = board.getTeamPositions(mover).toArray(new ChessPosition[0]);
+        for(ChessPosition square : moverSquares){
+            Collection<ChessMove> moves = game.validMoves(square);
+            if(!moves.isEmpty()){
+                firstMove = moves.iterator().next();
+                break;
+            }
+        }
+    }
+
+    private void invalidate() {
+        board.addPiece(kingSquare, king);
+    }
+
+    @Benchmark
+    public void validMovesCold(Blackhole blackhole) {
+        invalidate();
+        for(ChessPosition square : moverSquares){
+            blackhole.consume(game.validMoves(square));
+        }
+    }
+
+    @Benchmark
+    public void validMovesCached(Blackhole blackhole) {
+        for(ChessPosition square : moverSquares){
+            blackhole.consume(game.validMoves(square));
+        }
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(mover);
+    }
+
+    @Benchmark
+    public boolean isInCheckmateCold() {
+        invalidate();
+        return game.isInCheckmate(mover);
+    }
+
+    @Benchmark
+    public boolean isInStalemateCold() {
+        invalidate();
+        return game.isInStalemate(mover);
+    }
+
+    @Benchmark
+    public ChessGame.GameStatus evaluateStatusCold() {
+        invalidate();
+        return game.evaluateStatus();
+    }
+
+    /**
+     * A fresh copy of the benchmark position for each makeMove call, so every
+     * call starts from the same castling rights, en passant square and clocks
+     */
+    @State(Scope.Thread)
+    public static class FreshGame {
+        ChessGame game;
+
+        @Setup(Level.Invocation)
+        public void reset(GameBenchmark benchmark) {
+            game = Positions.load(benchmark.position);
+        }
+    }
+
+    /**
+     * Validated makeMove from the position; the reset happens outside the
+     * measured method
+     */
+    @Benchmark
+    public ChessGame makeMove(FreshGame fresh) throws InvalidMoveException {
+        fresh.game.makeMove(firstMove);
+        return fresh.game;
+    }
+}
@@ -0,0 +1,60 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pseudo-legal move generation (ChessPiece.pieceMoves) for every piece of one
+ * type, both colors, in one position
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PieceMovesBenchmark {
+
+    @Param({"opening", "middlegame", "kiwipete", "rookEndgame"})
+    public String position;
+
+    @Param({"KING", "QUEEN", "BISHOP", "KNIGHT", "ROOK", "PAWN"})
+    public ChessPiece.PieceType type;
+
+    private ChessBoard board;
+    private ChessPosition[] squares;
+    private ChessPiece[] pieces;
+
+    @Setup
+    public void setup() {
+        board = Positions.load(position).getBoard();
+        List<ChessPosition> found = new ArrayList<>();
+        for(ChessGame.TeamColor color : ChessGame.TeamColor.values()){
+            for(ChessPosition square : board.getTeamPositions(color)){
+                if(board.getPiece(square).getPieceType() == type){
+                    found.add(square);
+                }
+            }
+        }
+        squares = found.toArray(new ChessPosition[0]);
+        pieces = new ChessPiece[squares.length];
+        for(int i = 0; i < squares.length; i++){
+            pieces[i] = board.getPiece(squares[i]);
+        }
+    }
+
+    @Benchmark
+    public void pieceMoves(Blackhole blackhole) {
+        for(int i = 0; i < squares.length; i++){
+            blackhole.consume(pieces[i].pieceMoves(board, squares[i]));
+        }
+    }
+}
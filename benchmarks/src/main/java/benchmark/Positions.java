@@ -0,0 +1,31 @@
+package benchmark;
+
+import chess.ChessGame;
+
+import java.util.Map;
+
+/**
+ * Benchmark corpus: a few positions from each phase of the game, keyed by the
+ * names the benchmarks take as their position parameter
+ */
+public final class Positions {
+
+    public static final Map<String, String> FENS = Map.of(
+        "opening", "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+        "ruyLopez", "r1bqkbnr/pppp1ppp/2n5/1B2p3/4P3/5N2/PPPP1PPP/RNBQK2R b KQkq - 3 3",
+        "middlegame", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+        "kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "rookEndgame", "8/5pk1/6p1/8/3R4/6P1/5PK1/8 w - - 0 1",
+        "pawnEndgame", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"
+    );
+
+    private Positions() {}
+
+    public static ChessGame load(String name) {
+        String fen = FENS.get(name);
+        if(fen == null){
+            throw new IllegalArgumentException("Unknown benchmark position: " + name);
+        }
+        return ChessGame.fromFen(fen);
+    }
+}
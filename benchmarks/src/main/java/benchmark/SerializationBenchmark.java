@@ -0,0 +1,62 @@
+package benchmark;
+
+import chess.ChessGame;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+import serialization.Serializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gson round trip of a ChessGame, the way the server stores games and sends
+ * them to clients, with plain reflective Gson and with the shared compact adapters
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"opening", "middlegame", "rookEndgame"})
+    public String position;
+
+    private final Gson gson = new Gson();
+    private final Gson compact = Serializer.gson();
+    private ChessGame game;
+    private String json;
+    private String compactJson;
+
+    @Setup
+    public void setup() {
+        game = Positions.load(position);
+        json = gson.toJson(game);
+        compactJson = compact.toJson(game);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return gson.toJson(game);
+    }
+
+    @Benchmark
+    public ChessGame fromJson() {
+        return gson.fromJson(json, ChessGame.class);
+    }
+
+    @Benchmark
+    public ChessGame roundTrip() {
+        return gson.fromJson(gson.toJson(game), ChessGame.class);
+    }
+
+    @Benchmark
+    public String toJsonCompact() {
+        return compact.toJson(game);
+    }
+
+    @Benchmark
+    public ChessGame fromJsonCompact() {
+        return compact.fromJson(compactJson, ChessGame.class);
+    }
+}
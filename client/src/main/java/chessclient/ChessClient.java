@@ -9,11 +9,10 @@ import java.util.ArrayList;
 import java.util.Map;
 import java.util.Scanner;
 
-import com.google.gson.Gson;
-
 import chess.ChessMove;
 import chess.ChessPosition;
 import model.GameData;
+import serialization.Serializer;
 import ui.EscapeSequences;
 import websocket.ServerMessageObserver;
 import websocket.WebSocketFacade;
@@ -52,12 +51,12 @@ public class ChessClient implements ServerMessageObserver{
     @Override
     public void message(ServerMessage message, String strMessage){
         switch(message.getServerMessageType()){
-            case LOAD_GAME -> loadGame(new Gson().fromJson(strMessage, LoadGameMessage.class));
-            case ERROR -> error(new Gson().fromJson(strMessage, ErrorMessage.class));
-            case NOTIFICATION -> notification(new Gson().fromJson(strMessage, NotificationMessage.class));
+            case LOAD_GAME -> loadGame(Serializer.gson().fromJson(strMessage, LoadGameMessage.class));
+            case ERROR -> error(Serializer.gson().fromJson(strMessage, ErrorMessage.class));
+            case NOTIFICATION -> notification(Serializer.gson().fromJson(strMessage, NotificationMessage.class));
             case RESIGN -> resignPing();
             case LEAVE -> leavePing();
-            case HIGHLIGHT -> highlightPing(new Gson().fromJson(strMessage, HighlightMessage.class));
+            case HIGHLIGHT -> highlightPing(Serializer.gson().fromJson(strMessage, HighlightMessage.class));
             default -> throw new IllegalArgumentException("Unexpected value: " + message.getServerMessageType());
         };
     }
@@ -284,7 +283,7 @@ public class ChessClient implements ServerMessageObserver{
         checkLength(line, 3);
         var values = line.split(" ");
         var body = Map.of("username", values[1], "password", values[2]);
-        HttpURLConnection http = sendRequest(url + "/session", "POST", new Gson().toJson(body));
+        HttpURLConnection http = sendRequest(url + "/session", "POST", Serializer.gson().toJson(body));
         String response = receiveResponse(http).toString();
         authToken = response.substring(response.indexOf("authToken")+10, response.length()-1);
         status = Status.LOGGED_IN;
@@ -296,7 +295,7 @@ public class ChessClient implements ServerMessageObserver{
         checkLength(line, 4);
         var values = line.split(" ");
         var body = Map.of("username", values[1], "password", values[2], "email", values[3]);
-        HttpURLConnection http = sendRequest(url + "/user", "POST", new Gson().toJson(body));
+        HttpURLConnection http = sendRequest(url + "/user", "POST", Serializer.gson().toJson(body));
         String response = receiveResponse(http).toString();
         authToken = response.substring(response.indexOf("authToken")+10, response.length()-1);
         status = Status.LOGGED_IN;
@@ -319,7 +318,7 @@ public class ChessClient implements ServerMessageObserver{
         checkLength(line, 2);
         String gameName = line.split(" ")[1];
         var body = Map.of("gameName", gameName);
-        HttpURLConnection http = sendRequest(url + "/game", "POST", new Gson().toJson(body), authToken);
+        HttpURLConnection http = sendRequest(url + "/game", "POST", Serializer.gson().toJson(body), authToken);
         receiveResponse(http);
         System.out.printf("The game '%s' has been created!%n", gameName);
         printStatus();
@@ -479,7 +478,7 @@ public class ChessClient implements ServerMessageObserver{
         Object responseBody;
         try (InputStream respBody = http.getInputStream()) {
             InputStreamReader inputStreamReader = new InputStreamReader(respBody);
-            responseBody = new Gson().fromJson(inputStreamReader, Map.class);
+            responseBody = Serializer.gson().fromJson(inputStreamReader, Map.class);
         }
         return responseBody;
     }
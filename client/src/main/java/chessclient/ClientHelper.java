@@ -1,31 +1,29 @@
 package chessclient;
 
 import java.io.IOException;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
-import java.util.Map;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
 
 import chess.ChessBoard;
 import chess.ChessGame;
 import chess.ChessPiece;
 import chess.ChessPosition;
 import model.GameData;
+import serialization.Serializer;
 import ui.EscapeSequences;
 
 public class ClientHelper {
+    private static final Type GAME_LIST = new TypeToken<ArrayList<GameData>>(){}.getType();
+
     public static ArrayList<GameData> gamesAsList(Object httpResponse){
-        var result = new Gson().fromJson(httpResponse.toString(), Map.class);
-        var res = new Gson().fromJson(result.get("games").toString(), ArrayList.class);
-        ArrayList<GameData> currentGames = new ArrayList<>();
-        for(int i = 0; i < res.size(); i++){
-            GameData game = new Gson().fromJson(res.get(i).toString(), GameData.class);
-            currentGames.add(game);
-        }
-        return currentGames;
+        // The response was read as a Map; go back through the JSON tree so the chess adapters apply
+        var result = Serializer.gson().toJsonTree(httpResponse).getAsJsonObject();
+        return Serializer.gson().fromJson(result.get("games"), GAME_LIST);
     }
 
     public static ChessPiece.PieceType toPromotion(String promotion){
@@ -63,7 +61,7 @@ public class ClientHelper {
             case 'h' -> 8;
             default -> throw new Exception("Invalid input");
         };
-        return new ChessPosition(row-'0', col);
+        return ChessPosition.of(row-'0', col);
     }
 
     public static void checkMove(String location) throws Exception{
@@ -159,12 +157,12 @@ public class ClientHelper {
     private static void printPiece(ChessPiece piece, int i, int j, boolean whiteBackground, ChessPosition init, ArrayList<ChessPosition> moves){
         Predicate<ChessPiece> validPiece = x -> x != null;
         if(whiteBackground){
-            if(init.equals(new ChessPosition(arrayToRow(i), arrayToCol(j)))){
+            if(init.equals(ChessPosition.of(arrayToRow(i), arrayToCol(j)))){
                 System.out.printf("%s%s%s", EscapeSequences.SET_BG_COLOR_GREEN,
                     validPiece.test(piece) ? pieceChar(piece) : EscapeSequences.EMPTY, 
                     EscapeSequences.FULL_COLOR_RESET);
             }
-            else if(moves.contains(new ChessPosition(arrayToRow(i), arrayToCol(j)))){
+            else if(moves.contains(ChessPosition.of(arrayToRow(i), arrayToCol(j)))){
                 System.out.printf("%s%s%s", EscapeSequences.SET_BG_COLOR_YELLOW,
                     validPiece.test(piece) ? pieceChar(piece) : EscapeSequences.EMPTY, 
                     EscapeSequences.FULL_COLOR_RESET);
@@ -176,12 +174,12 @@ public class ClientHelper {
             }
         }
         else{
-            if(init.equals(new ChessPosition(arrayToRow(i), arrayToCol(j)))){
+            if(init.equals(ChessPosition.of(arrayToRow(i), arrayToCol(j)))){
                 System.out.printf("%s%s%s", EscapeSequences.SET_BG_COLOR_GREEN,
                     validPiece.test(piece) ? pieceChar(piece) : EscapeSequences.EMPTY, 
                     EscapeSequences.FULL_COLOR_RESET);
             }
-            else if(moves.contains(new ChessPosition(arrayToRow(i), arrayToCol(j)))){
+            else if(moves.contains(ChessPosition.of(arrayToRow(i), arrayToCol(j)))){
                 System.out.printf("%s%s%s", EscapeSequences.SET_BG_COLOR_YELLOW,
                     validPiece.test(piece) ? pieceChar(piece) : EscapeSequences.EMPTY, 
                     EscapeSequences.FULL_COLOR_RESET);
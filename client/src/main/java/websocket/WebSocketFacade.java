@@ -12,11 +12,10 @@ import javax.websocket.MessageHandler;
 import javax.websocket.Session;
 import javax.websocket.WebSocketContainer;
 
-import com.google.gson.Gson;
-
 import chess.ChessMove;
 import chess.ChessPosition;
 import exception.ResponseException;
+import serialization.Serializer;
 import websocket.commands.ConnectCommand;
 import websocket.commands.HighlightCommand;
 import websocket.commands.MakeMoveCommand;
@@ -43,7 +42,7 @@ public class WebSocketFacade extends Endpoint{
             this.session.addMessageHandler(new MessageHandler.Whole<String>() {
                 @Override
                 public void onMessage(String message){
-                    ServerMessage servMessage = new Gson().fromJson(message, ServerMessage.class);
+                    ServerMessage servMessage = Serializer.gson().fromJson(message, ServerMessage.class);
                     messageObserver.message(servMessage, message);
                 }
             });
@@ -59,14 +58,14 @@ public class WebSocketFacade extends Endpoint{
 
     public void loadBoard(String authToken, String gameID, boolean isWhite) throws Exception{
         var load = new RequestBoard(CommandType.REQUEST_BOARD, authToken, Integer.valueOf(gameID), isWhite);
-        this.session.getBasicRemote().sendText(new Gson().toJson(load));
+        this.session.getBasicRemote().sendText(Serializer.gson().toJson(load));
     }
 
     public void connect(String authToken, String gameID, String strType) throws ResponseException{
         try {
             if(strType.toUpperCase().equals("WHITE") || strType.toUpperCase().equals("BLACK")){
                 var connect = new ConnectCommand(CommandType.CONNECT, authToken, Integer.valueOf(gameID), strType.toUpperCase());
-                this.session.getBasicRemote().sendText(new Gson().toJson(connect));
+                this.session.getBasicRemote().sendText(Serializer.gson().toJson(connect));
             }
             else{
                 throw new ResponseException(401, "Error: invalid player color");
@@ -79,29 +78,29 @@ public class WebSocketFacade extends Endpoint{
 
     public void makeMove(String authToken, String gameID, boolean isWhite, ChessMove move) throws ResponseException, IOException{
         var moveReq = new MakeMoveCommand(CommandType.MAKE_MOVE, authToken, Integer.valueOf(gameID), isWhite, move);
-        this.session.getBasicRemote().sendText(new Gson().toJson(moveReq));
+        this.session.getBasicRemote().sendText(Serializer.gson().toJson(moveReq));
     }
 
     public void highlight(String authToken, String gameID, ChessPosition pos, boolean isWhite) throws Exception{
         var load = new HighlightCommand(CommandType.HIGHLIGHT, authToken, Integer.valueOf(gameID), pos, isWhite);
-        this.session.getBasicRemote().sendText(new Gson().toJson(load));
+        this.session.getBasicRemote().sendText(Serializer.gson().toJson(load));
     }
 
     public void leave(String authToken, String gameID) throws IOException, ResponseException{
         var leave = new UserGameCommand(CommandType.LEAVE, authToken, Integer.valueOf(gameID));
-        this.session.getBasicRemote().sendText(new Gson().toJson(leave));
+        this.session.getBasicRemote().sendText(Serializer.gson().toJson(leave));
     }
 
     public void resign(String authToken, String gameID) throws IOException, ResponseException{
         var resign = new UserGameCommand(CommandType.RESIGN, authToken, Integer.valueOf(gameID));
-        this.session.getBasicRemote().sendText(new Gson().toJson(resign));
+        this.session.getBasicRemote().sendText(Serializer.gson().toJson(resign));
     }
 
     public void observe(String authToken, String gameID) throws IOException, ResponseException{
         try{
 
             var observe = new RequestBoard(CommandType.OBSERVE, authToken, Integer.valueOf(gameID), true);
-            this.session.getBasicRemote().sendText(new Gson().toJson(observe));
+            this.session.getBasicRemote().sendText(Serializer.gson().toJson(observe));
         }
         catch(NumberFormatException ex){
             throw new ResponseException(400, "Error: bad request");
@@ -11,6 +11,8 @@ public class ServerMain {
         // For testing purposes, run on 8080
         Server server = new Server();
         server.run(3000);
+        // flush game state still queued for the database
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
         
         
     }
@@ -0,0 +1,204 @@
+package dataaccess;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import chess.ChessGame;
+import exception.ResponseException;
+import model.GameData;
+
+/**
+ * Keeps recently used games in memory in front of another GameDAO. Reads of a
+ * cached game skip the database, game state writes go through to the
+ * database and then the cache, and player or delete changes drop the entry.
+ * A game state write that overlaps another write drops the entry too, since
+ * either one may be the state the database ended up with.
+ * Games are evicted least recently used first, once over the size limit or
+ * once idle too long.
+ * <p>
+ * Games are held encoded and every read decodes a private copy, since rules
+ * queries make and unmake moves on the board in place and callers on other
+ * threads must never see that.
+ */
+public class CachingGameDAO implements GameDAO {
+
+    public static final int DEFAULT_MAX_GAMES = 1024;
+    public static final long DEFAULT_IDLE_MINUTES = 30;
+
+    private static class Entry {
+        // players and name; the game itself is in encoded
+        GameData data;
+        byte[] encoded;
+        long lastUsed;
+
+        Entry(GameData data, byte[] encoded, long lastUsed){
+            this.data = data;
+            this.encoded = encoded;
+            this.lastUsed = lastUsed;
+        }
+
+        GameData copy(){
+            return new GameData(data.gameID(), data.whiteUsername(), data.blackUsername(), data.gameName(),
+                ChessGame.decode(encoded));
+        }
+    }
+
+    private final GameDAO games;
+    private final int maxGames;
+    private final long idleNanos;
+    private final LongSupplier clock;
+    // access order, so the eldest entry is the least recently used
+    private final LinkedHashMap<Integer, Entry> cache = new LinkedHashMap<>(16, 0.75f, true);
+    // bumped on every write, so a load that raced with a write is not cached,
+    // and a write that raced with another write drops the entry
+    private long generation;
+
+    public CachingGameDAO(GameDAO games){
+        this(games, DEFAULT_MAX_GAMES, TimeUnit.MINUTES.toNanos(DEFAULT_IDLE_MINUTES), System::nanoTime);
+    }
+
+    CachingGameDAO(GameDAO games, int maxGames, long idleNanos, LongSupplier clock){
+        this.games = games;
+        this.maxGames = maxGames;
+        this.idleNanos = idleNanos;
+        this.clock = clock;
+    }
+
+    @Override
+    public int createGame(String gameName) throws ResponseException{
+        return games.createGame(gameName);
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws ResponseException{
+        long loadedAt;
+        synchronized(this){
+            evictIdle();
+            Entry entry = cache.get(gameID);
+            if(entry != null){
+                entry.lastUsed = clock.getAsLong();
+                return entry.copy();
+            }
+            loadedAt = generation;
+        }
+        GameData data = games.getGame(gameID);
+        if(data == null){
+            return null;
+        }
+        Entry entry = new Entry(data, data.game().encode(), clock.getAsLong());
+        synchronized(this){
+            if(generation == loadedAt){
+                put(entry);
+            }
+        }
+        return entry.copy();
+    }
+
+    @Override
+    public ArrayList<GameData> listGames() throws ResponseException{
+        return games.listGames();
+    }
+
+    @Override
+    public void updateGame(int gameID, String whiteUsername, String blackUsername) throws ResponseException{
+        invalidate(gameID);
+        games.updateGame(gameID, whiteUsername, blackUsername);
+        invalidate(gameID);
+    }
+
+    @Override
+    public void updateGame(int gameID, ChessGame game) throws ResponseException{
+        byte[] encoded = game.encode();
+        long writeStarted;
+        synchronized(this){
+            // loads already under way may read the database before this write
+            writeStarted = ++generation;
+        }
+        try{
+            games.updateGame(gameID, game);
+        }
+        catch(ResponseException ex){
+            // the cached game may already hold the move that failed to save
+            invalidate(gameID);
+            throw ex;
+        }
+        synchronized(this){
+            if(generation != writeStarted){
+                // another write may have reached the database after this one
+                invalidate(gameID);
+                return;
+            }
+            generation++;
+            Entry entry = cache.get(gameID);
+            if(entry != null){
+                entry.encoded = encoded;
+                entry.lastUsed = clock.getAsLong();
+            }
+        }
+    }
+
+    @Override
+    public void removeUser(int gameID, String playerColor) throws ResponseException{
+        invalidate(gameID);
+        games.removeUser(gameID, playerColor);
+        invalidate(gameID);
+    }
+
+    @Override
+    public void deleteGame(int gameID) throws ResponseException{
+        invalidate(gameID);
+        games.deleteGame(gameID);
+        invalidate(gameID);
+    }
+
+    @Override
+    public void clear() throws ResponseException{
+        invalidateAll();
+        games.clear();
+        invalidateAll();
+    }
+
+    /**
+     * @return number of games held in memory
+     */
+    public synchronized int size(){
+        return cache.size();
+    }
+
+    /**
+     * Drops a game from memory, so the next read loads it from the wrapped DAO
+     */
+    public synchronized void invalidate(int gameID){
+        generation++;
+        cache.remove(gameID);
+    }
+
+    private synchronized void invalidateAll(){
+        generation++;
+        cache.clear();
+    }
+
+    private void put(Entry entry){
+        cache.put(entry.data.gameID(), entry);
+        if(cache.size() > maxGames){
+            Iterator<Integer> eldest = cache.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    private void evictIdle(){
+        long now = clock.getAsLong();
+        Iterator<Map.Entry<Integer, Entry>> eldest = cache.entrySet().iterator();
+        while(eldest.hasNext()){
+            if(now - eldest.next().getValue().lastUsed < idleNanos){
+                return;
+            }
+            eldest.remove();
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package dataaccess;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+/**
+ * A bounded pool of database connections. getConnection hands out a
+ * connection whose close() returns it to the pool instead of closing it.
+ * <p>
+ * The pool opens minIdle connections up front and more as needed up to
+ * maxSize, waiting up to the acquire timeout once they are all in use.
+ * Connections idle longer than the idle timeout are closed while more than
+ * minIdle are open, and a connection that has sat idle is checked with
+ * isValid before being handed out again.
+ * Connections are physically closed outside the pool's lock, so a slow close
+ * never holds up other callers.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /**
+     * Opens a new physical connection
+     */
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    /**
+     * Pool counters
+     *
+     * @param open physical connections open
+     * @param idle connections waiting in the pool
+     * @param waiting callers waiting for a connection
+     * @param created physical connections opened since start
+     * @param acquired connections handed out since start
+     * @param timeouts getConnection calls that gave up waiting
+     * @param invalid connections discarded because they failed validation
+     */
+    public record Metrics(int open, int idle, int waiting, long created, long acquired, long timeouts, long invalid) {}
+
+    private static class Idle {
+        final Connection connection;
+        final long since;
+
+        Idle(Connection connection, long since){
+            this.connection = connection;
+            this.since = since;
+        }
+    }
+
+    // connections idle for less than this skip validation
+    private static final long VALIDATE_AFTER_NANOS = 1_000_000_000L;
+    private static final int VALIDATE_TIMEOUT_SECONDS = 2;
+
+    private final ConnectionFactory factory;
+    private final int minIdle;
+    private final int maxSize;
+    private final long idleTimeoutNanos;
+    private final long acquireTimeoutNanos;
+    // most recently returned first, so extra connections go idle and get evicted
+    private final ArrayDeque<Idle> idle = new ArrayDeque<>();
+    private int open;
+    private int waiting;
+    private long created;
+    private long acquired;
+    private long timeouts;
+    private long invalid;
+    private boolean closed;
+
+    /**
+     * Creates the pool and opens its first minIdle connections
+     *
+     * @throws SQLException if one of the first connections cannot be opened
+     */
+    public ConnectionPool(ConnectionFactory factory, int minIdle, int maxSize, long idleTimeoutMillis, long acquireTimeoutMillis)
+            throws SQLException{
+        if(minIdle < 0 || maxSize < 1 || minIdle > maxSize){
+            throw new IllegalArgumentException("Invalid pool size " + minIdle + ".." + maxSize);
+        }
+        this.factory = factory;
+        this.minIdle = minIdle;
+        this.maxSize = maxSize;
+        this.idleTimeoutNanos = idleTimeoutMillis * 1_000_000;
+        this.acquireTimeoutNanos = acquireTimeoutMillis * 1_000_000;
+        try{
+            prefill();
+        }
+        catch(SQLException ex){
+            close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Opens connections until at least minIdle are open
+     *
+     * @throws SQLException if a connection cannot be opened
+     */
+    public void prefill() throws SQLException{
+        while(true){
+            synchronized(this){
+                if(closed || open >= minIdle){
+                    return;
+                }
+                open++;
+            }
+            Connection connection = create();
+            synchronized(this){
+                idle.addLast(new Idle(connection, System.nanoTime()));
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Takes a connection from the pool, opening one if none are idle and the
+     * pool is not full. Close it to return it.
+     *
+     * @return a pooled connection
+     * @throws SQLException if the pool stays exhausted past the acquire timeout,
+     * or a new connection cannot be opened
+     */
+    public Connection getConnection() throws SQLException{
+        long deadline = System.nanoTime() + acquireTimeoutNanos;
+        while(true){
+            Idle reuse = null;
+            ArrayList<Connection> evicted = new ArrayList<>();
+            try{
+                synchronized(this){
+                    evictIdle(evicted);
+                    while(idle.isEmpty() && open >= maxSize){
+                        long remaining = deadline - System.nanoTime();
+                        if(closed || remaining <= 0){
+                            timeouts++;
+                            throw new SQLException(closed ? "Connection pool is closed"
+                                : "Timed out waiting for a connection, " + open + " of " + maxSize + " in use");
+                        }
+                        waiting++;
+                        try{
+                            wait(Math.max(1, remaining / 1_000_000));
+                        }
+                        catch(InterruptedException ex){
+                            Thread.currentThread().interrupt();
+                            throw new SQLException("Interrupted waiting for a connection", ex);
+                        }
+                        finally{
+                            waiting--;
+                        }
+                    }
+                    if(closed){
+                        throw new SQLException("Connection pool is closed");
+                    }
+                    if(!idle.isEmpty()){
+                        reuse = idle.pop();
+                    }
+                    else{
+                        // reserve the slot before opening outside the lock
+                        open++;
+                    }
+                }
+            }
+            finally{
+                closeAll(evicted);
+            }
+            Connection connection = reuse != null ? validate(reuse) : create();
+            if(connection != null){
+                synchronized(this){
+                    acquired++;
+                }
+                return lease(connection);
+            }
+        }
+    }
+
+    /**
+     * @return a snapshot of the pool counters
+     */
+    public synchronized Metrics metrics(){
+        return new Metrics(open, idle.size(), waiting, created, acquired, timeouts, invalid);
+    }
+
+    /**
+     * Closes idle connections and refuses new requests; connections in use are
+     * closed when they are returned
+     */
+    @Override
+    public void close(){
+        ArrayList<Connection> idleConnections = new ArrayList<>();
+        synchronized(this){
+            closed = true;
+            while(!idle.isEmpty()){
+                idleConnections.add(idle.pop().connection);
+                forget();
+            }
+            notifyAll();
+        }
+        closeAll(idleConnections);
+    }
+
+    private Connection create() throws SQLException{
+        try{
+            Connection connection = factory.open();
+            synchronized(this){
+                created++;
+            }
+            return connection;
+        }
+        catch(SQLException | RuntimeException ex){
+            synchronized(this){
+                open--;
+                notifyAll();
+            }
+            throw ex;
+        }
+    }
+
+    // null when the connection went bad while idle
+    private Connection validate(Idle candidate){
+        if(System.nanoTime() - candidate.since < VALIDATE_AFTER_NANOS){
+            return candidate.connection;
+        }
+        boolean valid;
+        try{
+            valid = candidate.connection.isValid(VALIDATE_TIMEOUT_SECONDS);
+        }
+        catch(SQLException ex){
+            valid = false;
+        }
+        if(valid){
+            return candidate.connection;
+        }
+        synchronized(this){
+            invalid++;
+            forget();
+        }
+        closeQuietly(candidate.connection);
+        return null;
+    }
+
+    private void release(Connection connection){
+        boolean reusable;
+        try{
+            reusable = !connection.isClosed();
+            if(reusable && !connection.getAutoCommit()){
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        }
+        catch(SQLException ex){
+            reusable = false;
+        }
+        synchronized(this){
+            if(reusable && !closed){
+                idle.push(new Idle(connection, System.nanoTime()));
+                notifyAll();
+                return;
+            }
+            forget();
+        }
+        closeQuietly(connection);
+    }
+
+    // call holding the lock; the caller closes the evicted connections after releasing it
+    private void evictIdle(ArrayList<Connection> evicted){
+        long now = System.nanoTime();
+        Iterator<Idle> oldest = idle.descendingIterator();
+        while(oldest.hasNext() && idle.size() > minIdle){
+            Idle next = oldest.next();
+            if(now - next.since < idleTimeoutNanos){
+                return;
+            }
+            oldest.remove();
+            evicted.add(next.connection);
+            forget();
+        }
+    }
+
+    // call holding the lock, once per connection leaving the pool
+    private void forget(){
+        open--;
+        notifyAll();
+    }
+
+    private static void closeAll(ArrayList<Connection> connections){
+        for(Connection connection : connections){
+            closeQuietly(connection);
+        }
+    }
+
+    private static void closeQuietly(Connection connection){
+        try{
+            connection.close();
+        }
+        catch(SQLException ex){
+            // already unusable
+        }
+    }
+
+    // wraps a physical connection so close() returns it, once, to the pool
+    private Connection lease(Connection connection){
+        boolean[] returned = {false};
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+                switch(method.getName()){
+                    case "close" -> {
+                        if(!returned[0]){
+                            returned[0] = true;
+                            release(connection);
+                        }
+                        return null;
+                    }
+                    case "isClosed" -> {
+                        if(returned[0]){
+                            return true;
+                        }
+                    }
+                    case "equals" -> {
+                        return proxy == args[0];
+                    }
+                    case "hashCode" -> {
+                        return System.identityHashCode(proxy);
+                    }
+                    case "toString" -> {
+                        return "Pooled " + connection;
+                    }
+                    default -> {
+                        if(returned[0]){
+                            throw new SQLException("Connection has been returned to the pool");
+                        }
+                    }
+                }
+                try{
+                    return method.invoke(connection, args);
+                }
+                catch(InvocationTargetException ex){
+                    throw ex.getCause();
+                }
+            });
+    }
+}
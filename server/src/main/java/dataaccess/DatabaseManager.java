@@ -12,6 +12,14 @@ public class DatabaseManager {
     private static final String USER;
     private static final String PASSWORD;
     private static final String CONNECTION_URL;
+    private static final int POOL_MIN_IDLE;
+    private static final int POOL_MAX_SIZE;
+    private static final long POOL_IDLE_TIMEOUT_MILLIS;
+    private static final long POOL_ACQUIRE_TIMEOUT_MILLIS;
+    // opened once the database exists, closed on shutdown, reopened if used again
+    private static ConnectionPool pool;
+    private static final String STATEMENT_CACHE =
+        "useServerPrepStmts=true&cachePrepStmts=true&prepStmtCacheSize=256&prepStmtCacheSqlLimit=2048";
 
     /*
      * Load the database information for the db.properties file.
@@ -30,7 +38,13 @@ public class DatabaseManager {
 
                 var host = props.getProperty("db.host");
                 var port = Integer.parseInt(props.getProperty("db.port"));
-                CONNECTION_URL = String.format("jdbc:mysql://%s:%d", host, port);
+                // pooled connections live long, so let each keep its parsed statements
+                CONNECTION_URL = String.format("jdbc:mysql://%s:%d?%s", host, port, STATEMENT_CACHE);
+
+                POOL_MIN_IDLE = Integer.parseInt(props.getProperty("db.pool.minIdle", "2"));
+                POOL_MAX_SIZE = Integer.parseInt(props.getProperty("db.pool.maxSize", "10"));
+                POOL_IDLE_TIMEOUT_MILLIS = Long.parseLong(props.getProperty("db.pool.idleTimeoutMillis", "600000"));
+                POOL_ACQUIRE_TIMEOUT_MILLIS = Long.parseLong(props.getProperty("db.pool.acquireTimeoutMillis", "5000"));
             }
         } catch (Exception ex) {
             throw new RuntimeException("unable to process db.properties. " + ex.getMessage());
@@ -46,8 +60,8 @@ public class DatabaseManager {
     static void createDatabase() throws ResponseException {
         try {
             var statement = "CREATE DATABASE IF NOT EXISTS " + DATABASE_NAME;
-            var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
-            try (var preparedStatement = conn.prepareStatement(statement)) {
+            try (var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
+                 var preparedStatement = conn.prepareStatement(statement)) {
                 preparedStatement.executeUpdate();
             }
         } catch (SQLException e) {
@@ -56,10 +70,11 @@ public class DatabaseManager {
     }
 
     /**
-     * Create a connection to the database and sets the catalog based upon the
-     * properties specified in db.properties. Connections to the database should
-     * be short-lived, and you must close the connection when you are done with it.
-     * The easiest way to do that is with a try-with-resource block.
+     * Takes a connection to the database from the pool, with the catalog set
+     * from the properties specified in db.properties. Connections to the database
+     * should be short-lived, and you must close the connection when you are done
+     * with it, which returns it to the pool. The easiest way to do that is with a
+     * try-with-resource block.
      * <br/>
      * <code>
      * try (var conn = DbInfo.getConnection(databaseName)) {
@@ -69,11 +84,40 @@ public class DatabaseManager {
      */
     static Connection getConnection() throws ResponseException {
         try {
-            var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
-            conn.setCatalog(DATABASE_NAME);
-            return conn;
+            return pool().getConnection();
         } catch (SQLException e) {
             throw new ResponseException(500, e.getMessage());
         }
     }
+
+    /**
+     * Pool size and wait counters, for monitoring, or null when no pool is open.
+     */
+    public static synchronized ConnectionPool.Metrics poolMetrics() {
+        return pool == null ? null : pool.metrics();
+    }
+
+    /**
+     * Closes the pooled connections. A later getConnection opens a new pool.
+     */
+    public static synchronized void closePool() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+
+    private static synchronized ConnectionPool pool() throws SQLException {
+        if (pool == null) {
+            pool = new ConnectionPool(DatabaseManager::openConnection,
+                POOL_MIN_IDLE, POOL_MAX_SIZE, POOL_IDLE_TIMEOUT_MILLIS, POOL_ACQUIRE_TIMEOUT_MILLIS);
+        }
+        return pool;
+    }
+
+    private static Connection openConnection() throws SQLException {
+        var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
+        conn.setCatalog(DATABASE_NAME);
+        return conn;
+    }
 }
@@ -16,10 +16,11 @@ public class MySqlAuthDAO implements AuthDAO{
 
     @Override
     public AuthData addAuthData(AuthData authData) throws ResponseException{
-        var conn = DatabaseManager.getConnection();
-        var statement = "INSERT INTO auth (authToken, username) VALUES ('";
-        statement += authData.authToken() + "','" + authData.username() + "');";
-        try(var insert = conn.prepareStatement(statement)){
+        var statement = "INSERT INTO auth (authToken, username) VALUES (?, ?)";
+        try(var conn = DatabaseManager.getConnection();
+            var insert = conn.prepareStatement(statement)){
+            insert.setString(1, authData.authToken());
+            insert.setString(2, authData.username());
             insert.executeUpdate();
             return authData;
         }
@@ -30,9 +31,10 @@ public class MySqlAuthDAO implements AuthDAO{
 
     @Override
     public AuthData getAuth(String authToken) throws ResponseException{
-        var conn = DatabaseManager.getConnection();
-        var statement = "SELECT * FROM auth WHERE authToken = '" + authToken + "';";
-        try(var query = conn.prepareStatement(statement)){
+        var statement = "SELECT * FROM auth WHERE authToken = ?";
+        try(var conn = DatabaseManager.getConnection();
+            var query = conn.prepareStatement(statement)){
+            query.setString(1, authToken);
             ResultSet rs = query.executeQuery();
             while(rs.next()){
                 if(authToken.equals(rs.getString("authToken"))){
@@ -48,9 +50,10 @@ public class MySqlAuthDAO implements AuthDAO{
 
     @Override
     public void removeAuthData(AuthData authData) throws ResponseException{
-        var conn = DatabaseManager.getConnection();
-        var statement = "DELETE FROM auth WHERE authToken = '" + authData.authToken() + "';";
-        try(var delete = conn.prepareStatement(statement)){
+        var statement = "DELETE FROM auth WHERE authToken = ?";
+        try(var conn = DatabaseManager.getConnection();
+            var delete = conn.prepareStatement(statement)){
+            delete.setString(1, authData.authToken());
             delete.executeUpdate();
         }
         catch(SQLException ex){
@@ -61,9 +64,9 @@ public class MySqlAuthDAO implements AuthDAO{
     @Override
     public void clear() throws ResponseException{
         configureAuthDatabase();
-        var conn = DatabaseManager.getConnection();
         var statement = "DELETE FROM auth";
-        try(var delete = conn.prepareStatement(statement)){
+        try(var conn = DatabaseManager.getConnection();
+            var delete = conn.prepareStatement(statement)){
             delete.executeUpdate();
         }
         catch(SQLException ex){
@@ -83,15 +86,16 @@ public class MySqlAuthDAO implements AuthDAO{
 
     private void configureAuthDatabase() throws ResponseException{
         DatabaseManager.createDatabase();
-        var conn = DatabaseManager.getConnection();
-        for(var authStatement : createAuthTable){
-            try(var authSanatized = conn.prepareStatement(authStatement)){
-                authSanatized.executeUpdate();
-            }
-            catch(SQLException ex){
-                throw new ResponseException(500, ex.toString());
+        try(var conn = DatabaseManager.getConnection()){
+            for(var authStatement : createAuthTable){
+                try(var authSanatized = conn.prepareStatement(authStatement)){
+                    authSanatized.executeUpdate();
+                }
             }
         }
+        catch(SQLException ex){
+            throw new ResponseException(500, ex.toString());
+        }
     }
 
     @Override
@@ -1,15 +1,15 @@
 package dataaccess;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 
-import com.google.gson.Gson;
-
 import chess.ChessGame;
 import exception.ResponseException;
 import model.GameData;
+import serialization.Serializer;
 
 public class MySqlGameDAO implements GameDAO{
 
@@ -22,12 +22,11 @@ public class MySqlGameDAO implements GameDAO{
         if(gameName.isEmpty()){
             throw new ResponseException(400, "Error: bad request");
         }
-        var conn = DatabaseManager.getConnection();
         var statement = "INSERT INTO game (gameName, game) VALUES (?, ?);";
-        try(var insert = conn.prepareStatement(statement, PreparedStatement.RETURN_GENERATED_KEYS)){
+        try(var conn = DatabaseManager.getConnection();
+            var insert = conn.prepareStatement(statement, PreparedStatement.RETURN_GENERATED_KEYS)){
             insert.setString(1, gameName);
-            var json = new Gson().toJson(new ChessGame());
-            insert.setString(2, json);
+            insert.setBytes(2, new ChessGame().encode());
             insert.executeUpdate();
             ResultSet rs = insert.getGeneratedKeys();
             if(rs.next()) {
@@ -42,16 +41,17 @@ public class MySqlGameDAO implements GameDAO{
 
     @Override
     public GameData getGame(int gameID) throws ResponseException{
-        var conn = DatabaseManager.getConnection();
-        var statement = "SELECT * FROM game WHERE id = " + gameID;
-        try(var query = conn.prepareStatement(statement)){
+        var statement = "SELECT * FROM game WHERE id = ?";
+        try(var conn = DatabaseManager.getConnection();
+            var query = conn.prepareStatement(statement)){
+            query.setInt(1, gameID);
             ResultSet rs = query.executeQuery();
             if(rs.next()){
                 return new GameData(rs.getInt(1), 
                     rs.getString("whiteUsername"), 
                     rs.getString("blackUsername"), 
                     rs.getString("gameName"),
-                    new Gson().fromJson(rs.getString("game"), ChessGame.class));
+                    readGame(rs.getBytes("game")));
             }
             return null;
 
@@ -63,17 +63,17 @@ public class MySqlGameDAO implements GameDAO{
 
     @Override
     public ArrayList<GameData> listGames() throws ResponseException{
-        var conn = DatabaseManager.getConnection();
         var statement = "SELECT * FROM game";
         ArrayList<GameData> list = new ArrayList<>();
-        try(var query = conn.prepareStatement(statement)){
+        try(var conn = DatabaseManager.getConnection();
+            var query = conn.prepareStatement(statement)){
             ResultSet rs = query.executeQuery();
             while(rs.next()){
                 list.add(new GameData(rs.getInt(1), 
                     rs.getString("whiteUsername"), 
                     rs.getString("blackUsername"), 
                     rs.getString("gameName"),
-                    new Gson().fromJson(rs.getString("game"), ChessGame.class)));
+                    readGame(rs.getBytes("game"))));
             }
             return list;
         }
@@ -85,12 +85,16 @@ public class MySqlGameDAO implements GameDAO{
     @Override
     public void updateGame(int gameID, String whiteUsername, String blackUsername) throws ResponseException{
         GameData game = getGame(gameID);
-        var conn = DatabaseManager.getConnection();
-        var statement = "UPDATE game SET whiteUsername = '" + whiteUsername + "' WHERE id = " + game.gameID();
+        var statement = "UPDATE game SET whiteUsername = ? WHERE id = ?";
+        var username = whiteUsername;
         if(blackUsername != null){
-            statement = "UPDATE game SET blackUsername = '" + blackUsername + "' WHERE id = " + game.gameID();
+            statement = "UPDATE game SET blackUsername = ? WHERE id = ?";
+            username = blackUsername;
         }
-        try(var update = conn.prepareStatement(statement)){
+        try(var conn = DatabaseManager.getConnection();
+            var update = conn.prepareStatement(statement)){
+            update.setString(1, username);
+            update.setInt(2, game.gameID());
             update.executeUpdate();
         }
         catch(SQLException ex){
@@ -100,9 +104,11 @@ public class MySqlGameDAO implements GameDAO{
 
     @Override
     public void updateGame(int gameID, ChessGame gameNew) throws ResponseException{
-        var conn = DatabaseManager.getConnection();
-        var statement = "UPDATE game SET game = '" + new Gson().toJson(gameNew) + "' WHERE id = " + gameID;
-        try(var update = conn.prepareStatement(statement)){
+        var statement = "UPDATE game SET game = ? WHERE id = ?";
+        try(var conn = DatabaseManager.getConnection();
+            var update = conn.prepareStatement(statement)){
+            update.setBytes(1, gameNew.encode());
+            update.setInt(2, gameID);
             update.executeUpdate();
         }
         catch(SQLException ex){
@@ -112,9 +118,10 @@ public class MySqlGameDAO implements GameDAO{
 
     @Override
     public void deleteGame(int gameID) throws ResponseException{
-        var conn = DatabaseManager.getConnection();
-        var statement = "DELETE FROM game WHERE id = " + gameID;
-        try(var delete = conn.prepareStatement(statement)){
+        var statement = "DELETE FROM game WHERE id = ?";
+        try(var conn = DatabaseManager.getConnection();
+            var delete = conn.prepareStatement(statement)){
+            delete.setInt(1, gameID);
             delete.executeUpdate();
         }
         catch(SQLException ex){
@@ -125,12 +132,13 @@ public class MySqlGameDAO implements GameDAO{
 
     @Override
     public void removeUser(int gameID, String playerColor) throws ResponseException{
-        var conn = DatabaseManager.getConnection();
-        var statement = "UPDATE game SET whiteUsername = NULL WHERE id = " + gameID;
+        var statement = "UPDATE game SET whiteUsername = NULL WHERE id = ?";
         if(playerColor.equals("black")){
-            statement = "UPDATE game SET blackUsername = NULL WHERE id = " + gameID;
+            statement = "UPDATE game SET blackUsername = NULL WHERE id = ?";
         }
-        try(var remove = conn.prepareStatement(statement)){
+        try(var conn = DatabaseManager.getConnection();
+            var remove = conn.prepareStatement(statement)){
+            remove.setInt(1, gameID);
             remove.executeUpdate();
         }
         catch(SQLException ex){
@@ -141,24 +149,36 @@ public class MySqlGameDAO implements GameDAO{
     @Override
     public void clear() throws ResponseException{
         configureGameDatabase();
-        var conn = DatabaseManager.getConnection();
-        var statement = "DELETE FROM game";
-        try(var delete = conn.prepareStatement(statement)){
-            delete.executeUpdate();
-        }
-        catch(SQLException ex){
-            throw new ResponseException(500, "Error: bad database request");
-        }
-        // reset autoincrement
-        statement = "ALTER TABLE game AUTO_INCREMENT 1";
-        try(var delete = conn.prepareStatement(statement)){
-            delete.executeUpdate();
+        try(var conn = DatabaseManager.getConnection()){
+            var statement = "DELETE FROM game";
+            try(var delete = conn.prepareStatement(statement)){
+                delete.executeUpdate();
+            }
+            // reset autoincrement
+            statement = "ALTER TABLE game AUTO_INCREMENT 1";
+            try(var delete = conn.prepareStatement(statement)){
+                delete.executeUpdate();
+            }
         }
         catch(SQLException ex){
             throw new ResponseException(500, "Error: bad database request");
         }
     }
 
+    /**
+     * Reads the game column: ChessGame.encode bytes, or the Gson JSON that rows
+     * written before the binary format still hold
+     * 
+     * @param stored column value
+     * @return the game
+     */
+    private ChessGame readGame(byte[] stored){
+        if(stored.length > 0 && stored[0] == '{'){
+            return Serializer.gson().fromJson(new String(stored, StandardCharsets.UTF_8), ChessGame.class);
+        }
+        return ChessGame.decode(stored);
+    }
+
     private final String[] createGameTable = {
         """
         CREATE TABLE IF NOT EXISTS game (
@@ -166,22 +186,39 @@ public class MySqlGameDAO implements GameDAO{
           `whiteUsername` varchar(256),
           `blackUsername` varchar(256),
           `gameName` varchar(256) NOT NULL,
-          `game` longtext NOT NULL
+          `game` blob NOT NULL
         )
         """
     };
 
+    // Tables created before the binary format have a longtext game column;
+    // converting it to blob keeps the JSON already stored, which readGame still reads
+    private final String gameColumnType = """
+        SELECT DATA_TYPE FROM information_schema.COLUMNS
+        WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'game' AND COLUMN_NAME = 'game'
+        """;
+    private final String migrateGameColumn = "ALTER TABLE game MODIFY `game` blob NOT NULL";
+
     private void configureGameDatabase() throws ResponseException{
         DatabaseManager.createDatabase();
-        var conn = DatabaseManager.getConnection();
-        for(var gameStatement : createGameTable){
-            try(var gameSanatized = conn.prepareStatement(gameStatement)){
-                gameSanatized.executeUpdate();
+        try(var conn = DatabaseManager.getConnection()){
+            for(var gameStatement : createGameTable){
+                try(var gameSanatized = conn.prepareStatement(gameStatement)){
+                    gameSanatized.executeUpdate();
+                }
             }
-            catch(SQLException ex){
-                throw new ResponseException(500, ex.toString());
+            try(var typeQuery = conn.prepareStatement(gameColumnType)){
+                ResultSet rs = typeQuery.executeQuery();
+                if(rs.next() && rs.getString(1).equalsIgnoreCase("longtext")){
+                    try(var migrate = conn.prepareStatement(migrateGameColumn)){
+                        migrate.executeUpdate();
+                    }
+                }
             }
         }
+        catch(SQLException ex){
+            throw new ResponseException(500, ex.toString());
+        }
     }
     
 }
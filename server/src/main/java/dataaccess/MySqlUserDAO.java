@@ -17,9 +17,10 @@ public class MySqlUserDAO implements UserDAO{
 
     @Override
     public UserData addUserData(UserData userData) throws ResponseException {
-        var conn = DatabaseManager.getConnection();
-        var statement = "SELECT username FROM user WHERE username=" + "'" + userData.username() + "';";
-        try(var sanatizedInput = conn.prepareStatement(statement)){
+        var statement = "SELECT username FROM user WHERE username = ?";
+        try(var conn = DatabaseManager.getConnection();
+            var sanatizedInput = conn.prepareStatement(statement)){
+            sanatizedInput.setString(1, userData.username());
             ResultSet rs = sanatizedInput.executeQuery();
             while(rs.next()){
                 String username = rs.getString("username");
@@ -29,9 +30,11 @@ public class MySqlUserDAO implements UserDAO{
             }
             // Insert user
             String hashedPassword = BCrypt.hashpw(userData.password(), BCrypt.gensalt());
-            var insert = "INSERT INTO user (username, password, email) VALUES ('";
-            insert += userData.username() + "','" + hashedPassword + "','" + userData.email() + "');";
+            var insert = "INSERT INTO user (username, password, email) VALUES (?, ?, ?)";
             try(var insertUser = conn.prepareStatement(insert)){
+                insertUser.setString(1, userData.username());
+                insertUser.setString(2, hashedPassword);
+                insertUser.setString(3, userData.email());
                 insertUser.executeUpdate();
             }
             return userData;
@@ -44,9 +47,10 @@ public class MySqlUserDAO implements UserDAO{
 
     @Override
     public UserData getUser(String username) throws ResponseException{
-        var conn = DatabaseManager.getConnection();
-        var statement = "SELECT * FROM user WHERE username = '" + username + "'";
-        try(var query = conn.prepareStatement(statement)){
+        var statement = "SELECT * FROM user WHERE username = ?";
+        try(var conn = DatabaseManager.getConnection();
+            var query = conn.prepareStatement(statement)){
+            query.setString(1, username);
             ResultSet rs = query.executeQuery();
             while(rs.next()){
                 String dbUsername = rs.getString("username");
@@ -65,9 +69,9 @@ public class MySqlUserDAO implements UserDAO{
     @Override
     public void clear() throws ResponseException{
         configureUserDatabase();
-        var conn = DatabaseManager.getConnection();
         var statement = "DELETE FROM user";
-        try(var delete = conn.prepareStatement(statement)){
+        try(var conn = DatabaseManager.getConnection();
+            var delete = conn.prepareStatement(statement)){
             delete.executeUpdate();
         }
         catch(SQLException ex){
@@ -88,15 +92,16 @@ public class MySqlUserDAO implements UserDAO{
 
     private void configureUserDatabase() throws ResponseException{
         DatabaseManager.createDatabase();
-        var conn = DatabaseManager.getConnection();
-        for(var userStatement : createUserTable){
-            try(var userSanatized = conn.prepareStatement(userStatement)){
-                userSanatized.executeUpdate();
-            }
-            catch(SQLException ex){
-                throw new ResponseException(500, "Internal server error");
+        try(var conn = DatabaseManager.getConnection()){
+            for(var userStatement : createUserTable){
+                try(var userSanatized = conn.prepareStatement(userStatement)){
+                    userSanatized.executeUpdate();
+                }
             }
         }
+        catch(SQLException ex){
+            throw new ResponseException(500, "Internal server error");
+        }
     }
 
     
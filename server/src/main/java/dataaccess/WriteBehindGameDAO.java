@@ -0,0 +1,333 @@
+package dataaccess;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import chess.ChessGame;
+import exception.ResponseException;
+import model.GameData;
+
+/**
+ * Saves game state to another GameDAO on a background thread. updateGame
+ * with a ChessGame returns once the state is queued; queued states for the
+ * same game are coalesced so only the latest is written. Reads see queued
+ * state. Every other operation goes straight to the wrapped DAO.
+ * <p>
+ * The queue holds at most capacity games; once full, updateGame waits for the
+ * writer. A failed write is retried with exponential backoff, and the state
+ * is dropped, counted as dropped and reported to the drop listener, after
+ * maxAttempts failures in a row.
+ * close() writes whatever is still queued, and updates after close are
+ * written directly.
+ */
+public class WriteBehindGameDAO implements GameDAO, AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 4096;
+    public static final long DEFAULT_FLUSH_MILLIS = 50;
+    public static final int DEFAULT_MAX_ATTEMPTS = 10;
+    // longest wait between retries while writes keep failing
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    /**
+     * Counters for the write-behind queue
+     *
+     * @param queued game states accepted by updateGame
+     * @param coalesced queued states replaced by a newer state before being written
+     * @param written states saved to the wrapped DAO
+     * @param failed failed write attempts; the state stays queued and is retried
+     * @param dropped states given up on after maxAttempts failed writes
+     * @param pending games waiting to be written
+     * @param oldestPendingMillis age of the oldest unwritten state, 0 when none
+     */
+    public record Metrics(long queued, long coalesced, long written, long failed, long dropped, int pending,
+        long oldestPendingMillis) {}
+
+    /**
+     * Told about a game whose queued state was given up on, so anything
+     * holding that state can discard it
+     */
+    public interface DropListener {
+        void dropped(int gameID);
+    }
+
+    // held encoded, so neither the caller nor a reader can change a state waiting to be written
+    private static class Pending {
+        final byte[] game;
+        final long queuedAt;
+        // failed writes of this state so far
+        final int attempts;
+
+        Pending(byte[] game, long queuedAt, int attempts){
+            this.game = game;
+            this.queuedAt = queuedAt;
+            this.attempts = attempts;
+        }
+    }
+
+    private final GameDAO games;
+    private final int capacity;
+    private final long flushMillis;
+    private final int maxAttempts;
+    // insertion order, so the eldest entry is the oldest unwritten state
+    private final LinkedHashMap<Integer, Pending> pending = new LinkedHashMap<>();
+    // drained from pending and being written, still visible to reads
+    private final LinkedHashMap<Integer, Pending> writing = new LinkedHashMap<>();
+    private final Thread writer;
+    private volatile DropListener onDrop = gameID -> {};
+    private boolean closed;
+    private long queued;
+    private long coalesced;
+    private long written;
+    private long failed;
+    private long dropped;
+    // flushes in a row that had a failed write, for the retry backoff
+    private int failedFlushes;
+
+    public WriteBehindGameDAO(GameDAO games){
+        this(games, DEFAULT_CAPACITY, DEFAULT_FLUSH_MILLIS, DEFAULT_MAX_ATTEMPTS);
+    }
+
+    public WriteBehindGameDAO(GameDAO games, int capacity, long flushMillis, int maxAttempts){
+        this.games = games;
+        this.capacity = capacity;
+        this.flushMillis = flushMillis;
+        this.maxAttempts = maxAttempts;
+        writer = new Thread(this::writeLoop, "game-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public int createGame(String gameName) throws ResponseException{
+        return games.createGame(gameName);
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws ResponseException{
+        return withPending(games.getGame(gameID));
+    }
+
+    @Override
+    public ArrayList<GameData> listGames() throws ResponseException{
+        ArrayList<GameData> list = new ArrayList<>();
+        for(GameData data : games.listGames()){
+            list.add(withPending(data));
+        }
+        return list;
+    }
+
+    @Override
+    public void updateGame(int gameID, String whiteUsername, String blackUsername) throws ResponseException{
+        games.updateGame(gameID, whiteUsername, blackUsername);
+    }
+
+    @Override
+    public void updateGame(int gameID, ChessGame game) throws ResponseException{
+        byte[] snapshot = game.encode();
+        synchronized(this){
+            while(!closed && pending.size() >= capacity && !pending.containsKey(gameID)){
+                try{
+                    wait();
+                }
+                catch(InterruptedException ex){
+                    Thread.currentThread().interrupt();
+                    throw new ResponseException(500, "Error: interrupted saving game");
+                }
+            }
+            if(!closed){
+                queued++;
+                Pending old = pending.remove(gameID);
+                if(old != null){
+                    coalesced++;
+                }
+                pending.put(gameID, new Pending(snapshot, old != null ? old.queuedAt : System.nanoTime(), 0));
+                notifyAll();
+                return;
+            }
+        }
+        games.updateGame(gameID, game);
+    }
+
+    @Override
+    public void removeUser(int gameID, String playerColor) throws ResponseException{
+        games.removeUser(gameID, playerColor);
+    }
+
+    @Override
+    public void deleteGame(int gameID) throws ResponseException{
+        synchronized(this){
+            pending.remove(gameID);
+            writing.remove(gameID);
+            notifyAll();
+        }
+        games.deleteGame(gameID);
+    }
+
+    @Override
+    public void clear() throws ResponseException{
+        synchronized(this){
+            pending.clear();
+            writing.clear();
+            notifyAll();
+        }
+        games.clear();
+    }
+
+    /**
+     * Sets the listener told about states dropped after maxAttempts failed writes
+     */
+    public void onDrop(DropListener listener){
+        onDrop = listener;
+    }
+
+    /**
+     * @return a snapshot of the queue counters
+     */
+    public synchronized Metrics metrics(){
+        long oldest = 0;
+        if(!pending.isEmpty()){
+            oldest = (System.nanoTime() - pending.values().iterator().next().queuedAt) / 1_000_000;
+        }
+        return new Metrics(queued, coalesced, written, failed, dropped, pending.size(), oldest);
+    }
+
+    // Writes every state queued so far. Only the writer thread, and close()
+    // once the writer has stopped, may call this, so a newer state is never
+    // written before an older one for the same game.
+    private void flush() throws ResponseException{
+        ResponseException failure = null;
+        for(Map.Entry<Integer, Pending> entry : drain()){
+            try{
+                write(entry.getKey(), entry.getValue());
+            }
+            catch(ResponseException ex){
+                failure = ex;
+            }
+        }
+        if(failure != null){
+            throw failure;
+        }
+    }
+
+    /**
+     * Stops the background writer and writes everything still queued
+     *
+     * @throws ResponseException if a queued state could not be written
+     */
+    @Override
+    public void close() throws ResponseException{
+        synchronized(this){
+            if(closed){
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+        try{
+            writer.join();
+        }
+        catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void writeLoop(){
+        while(true){
+            synchronized(this){
+                try{
+                    while(!closed && pending.isEmpty()){
+                        wait();
+                    }
+                    // let moves arriving within the interval coalesce into this batch,
+                    // and back off while writes keep failing
+                    long delay = Math.min(flushMillis << Math.min(failedFlushes, 20), MAX_BACKOFF_MILLIS);
+                    long deadline = System.nanoTime() + delay * 1_000_000;
+                    long remaining = delay;
+                    while(!closed && remaining > 0){
+                        wait(remaining);
+                        remaining = (deadline - System.nanoTime()) / 1_000_000;
+                    }
+                }
+                catch(InterruptedException ex){
+                    return;
+                }
+                if(closed){
+                    // close() writes the rest
+                    return;
+                }
+            }
+            try{
+                flush();
+                failedFlushes = 0;
+            }
+            catch(ResponseException ex){
+                // report the start of a failure streak, not every retry
+                if(failedFlushes++ == 0){
+                    System.out.printf("Write-behind flush failed, retrying with backoff: %s%n", ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private synchronized ArrayList<Map.Entry<Integer, Pending>> drain(){
+        ArrayList<Map.Entry<Integer, Pending>> batch = new ArrayList<>(pending.entrySet());
+        writing.putAll(pending);
+        pending.clear();
+        notifyAll();
+        return batch;
+    }
+
+    private void write(int gameID, Pending state) throws ResponseException{
+        try{
+            games.updateGame(gameID, ChessGame.decode(state.game));
+        }
+        catch(ResponseException | RuntimeException thrown){
+            // a runtime failure must not kill the writer thread either
+            ResponseException ex = (thrown instanceof ResponseException responseException)
+                ? responseException : new ResponseException(500, thrown.toString());
+            boolean gaveUp = false;
+            synchronized(this){
+                failed++;
+                // requeue unless a newer state or a delete arrived meanwhile
+                if(writing.remove(gameID, state) && !pending.containsKey(gameID)){
+                    if(state.attempts + 1 < maxAttempts){
+                        pending.put(gameID, new Pending(state.game, state.queuedAt, state.attempts + 1));
+                    }
+                    else{
+                        dropped++;
+                        gaveUp = true;
+                        System.out.printf("Write-behind dropped game %d after %d failed writes: %s%n",
+                            gameID, maxAttempts, ex.getMessage());
+                    }
+                }
+            }
+            if(gaveUp){
+                onDrop.dropped(gameID);
+            }
+            throw ex;
+        }
+        synchronized(this){
+            written++;
+            writing.remove(gameID, state);
+        }
+    }
+
+    private GameData withPending(GameData data){
+        if(data == null){
+            return null;
+        }
+        Pending state;
+        synchronized(this){
+            state = pending.get(data.gameID());
+            if(state == null){
+                state = writing.get(data.gameID());
+            }
+        }
+        if(state == null){
+            return data;
+        }
+        return new GameData(data.gameID(), data.whiteUsername(), data.blackUsername(), data.gameName(), ChessGame.decode(state.game));
+    }
+}
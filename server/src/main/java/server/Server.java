@@ -1,13 +1,12 @@
 package server;
 
-import com.google.gson.Gson;
-
 import dataaccess.MemoryAuthDAO;
 import dataaccess.MemoryGameDAO;
 import dataaccess.MemoryUserDAO;
 import exception.ResponseException;
 import requests.Request;
 import results.Result;
+import serialization.Serializer;
 import service.ChessService;
 import spark.Spark;
 import static spark.Spark.delete;
@@ -19,6 +18,12 @@ import websocket.WebSocketHandler;
 
 
 public class Server {
+    static {
+        Serializer.preload(Request.Register.class, Request.Login.class, Request.CreateGame.class, Request.JoinGame.class,
+            Request.UpdateGame.class, Request.DeleteGame.class, Result.Register.class, Result.Login.class,
+            Result.GetGames.class, Result.CreateGame.class, Result.Error.class);
+    }
+
     private final ChessService chessService;
     private final WebSocketHandler webSocketHandler;
 
@@ -80,20 +85,20 @@ public class Server {
     }
 
     public Object register(spark.Request req, spark.Response res) throws ResponseException{
-        var user = new Gson().fromJson(req.body(), Request.Register.class);
+        var user = Serializer.gson().fromJson(req.body(), Request.Register.class);
         var userRes = chessService.register(user);
-        return new Gson().toJson(userRes);
+        return Serializer.gson().toJson(userRes);
         
     }
 
     public Object login(spark.Request req, spark.Response res) throws ResponseException{
-        var login = new Gson().fromJson(req.body(), Request.Login.class);
+        var login = Serializer.gson().fromJson(req.body(), Request.Login.class);
         var loginRes = chessService.login(login);
         if(loginRes.authToken() == null){
             res.status(401);
-            return new Gson().toJson(new Result.Error("Error: unauthorized"));
+            return Serializer.gson().toJson(new Result.Error("Error: unauthorized"));
         }
-        return new Gson().toJson(loginRes);
+        return Serializer.gson().toJson(loginRes);
     }
 
     public Object logout(spark.Request req, spark.Response res) throws ResponseException{
@@ -105,19 +110,19 @@ public class Server {
     public Object listGames(spark.Request req, spark.Response res) throws ResponseException{
         var auth = new Request.GetGames(req.headers("Authorization"));
         var listGamesRes = chessService.showGames(auth);
-        return new Gson().toJson(listGamesRes);
+        return Serializer.gson().toJson(listGamesRes);
     }
 
     public Object createGame(spark.Request req, spark.Response res) throws ResponseException{
         String auth = req.headers("Authorization");
-        var create = new Gson().fromJson(req.body(), Request.CreateGame.class);
+        var create = Serializer.gson().fromJson(req.body(), Request.CreateGame.class);
         var createRes = chessService.createGame(auth, create);
-        return new Gson().toJson(createRes);
+        return Serializer.gson().toJson(createRes);
     }
 
     public Object joinGame(spark.Request req, spark.Response res) throws ResponseException{
         String auth = req.headers("Authorization");
-        var join = new Gson().fromJson(req.body(), Request.JoinGame.class);
+        var join = Serializer.gson().fromJson(req.body(), Request.JoinGame.class);
         chessService.joinGame(auth, join);
         return "";
         
@@ -125,14 +130,14 @@ public class Server {
 
     public Object updateGame(spark.Request req, spark.Response res) throws ResponseException{
         String auth = req.headers("Authorization");
-        var update = new Gson().fromJson(req.body(), Request.UpdateGame.class);
+        var update = Serializer.gson().fromJson(req.body(), Request.UpdateGame.class);
         chessService.updateGame(auth, update);
         return "";
     }
 
     public Object deleteGame(spark.Request req, spark.Response res) throws ResponseException{
         String auth = req.headers("Authorization");
-        var delete = new Gson().fromJson(req.body(), Request.DeleteGame.class);
+        var delete = Serializer.gson().fromJson(req.body(), Request.DeleteGame.class);
         chessService.deleteGame(auth, delete);
         return "";
     }
@@ -144,5 +149,11 @@ public class Server {
     public void stop() {
         Spark.stop();
         Spark.awaitStop();
+        try{
+            chessService.close();
+        }
+        catch(ResponseException ex){
+            System.out.printf("Unsaved game state on shutdown: %s%n", ex.getMessage());
+        }
     }
 }
@@ -3,11 +3,14 @@ import java.util.UUID;
 
 import chess.ChessGame;
 import dataaccess.AuthDAO;
+import dataaccess.CachingGameDAO;
+import dataaccess.DatabaseManager;
 import dataaccess.GameDAO;
 import dataaccess.MySqlAuthDAO;
 import dataaccess.MySqlGameDAO;
 import dataaccess.MySqlUserDAO;
 import dataaccess.UserDAO;
+import dataaccess.WriteBehindGameDAO;
 import exception.ResponseException;
 import model.AuthData;
 import model.GameData;
@@ -21,17 +24,63 @@ public class ChessService {
     private final AuthDAO authAccess;
     private final GameDAO gameAccess;
     private final UserDAO userAccess;
+    // set when game state is saved in the background
+    private final WriteBehindGameDAO gameWriter;
+    // set when the DAOs are the MySQL ones, whose connection pool close() shuts
+    private final boolean usesDatabase;
     
     public ChessService(AuthDAO authAccess, GameDAO gameAccess, UserDAO userAccess){
         this.authAccess = authAccess;
         this.gameAccess = gameAccess;
         this.userAccess = userAccess;
+        this.gameWriter = null;
+        this.usesDatabase = false;
     }
 
+    // -Dchess.writeBehind=true acknowledges moves before they reach the database
     public ChessService() throws ResponseException{
+        this(Boolean.getBoolean("chess.writeBehind"));
+    }
+
+    public ChessService(boolean writeBehind) throws ResponseException{
         authAccess = new MySqlAuthDAO();
-        gameAccess = new MySqlGameDAO();
-        userAccess = new MySqlUserDAO();        
+        userAccess = new MySqlUserDAO();
+        GameDAO games = new MySqlGameDAO();
+        gameWriter = writeBehind ? new WriteBehindGameDAO(games) : null;
+        CachingGameDAO cache = new CachingGameDAO(writeBehind ? gameWriter : games);
+        if(gameWriter != null){
+            // stop serving a state that will never reach the database
+            gameWriter.onDrop(cache::invalidate);
+        }
+        gameAccess = cache;
+        usesDatabase = true;
+    }
+
+    /**
+     * @return write-behind counters, or null when game state is saved synchronously
+     */
+    public WriteBehindGameDAO.Metrics writeBehindMetrics(){
+        return gameWriter == null ? null : gameWriter.metrics();
+    }
+
+    // save any game state still waiting to be written, report what was saved,
+    // then close the database connections
+    public void close() throws ResponseException{
+        try{
+            if(gameWriter != null){
+                try{
+                    gameWriter.close();
+                }
+                finally{
+                    System.out.printf("Write-behind on shutdown: %s%n", gameWriter.metrics());
+                }
+            }
+        }
+        finally{
+            if(usesDatabase){
+                DatabaseManager.closePool();
+            }
+        }
     }
 
     public void clear(Request.Delete clearDatabaseRequest) throws ResponseException{
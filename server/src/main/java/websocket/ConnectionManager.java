@@ -4,38 +4,74 @@ package websocket;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Map;
-import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.jetty.websocket.api.Session;
 
-import com.google.gson.Gson;
-
+import serialization.Serializer;
 import websocket.messages.ServerMessage;
 
 public class ConnectionManager {
     public final ConcurrentHashMap<String, Connection> connections = new ConcurrentHashMap<>();
+    // connections by game, so a broadcast only visits that game's audience
+    private final ConcurrentHashMap<Integer, ConcurrentHashMap<String, Connection>> games = new ConcurrentHashMap<>();
 
     // add connection
     public void add(String authToken, Integer gameID, Session session){
-        connections.put(authToken, new Connection(gameID, session));
+        var connection = new Connection(gameID, session);
+        unindex(authToken, connections.put(authToken, connection));
+        if(gameID != null){
+            games.compute(gameID, (id, audience) -> {
+                if(audience == null){
+                    audience = new ConcurrentHashMap<>();
+                }
+                audience.put(authToken, connection);
+                return audience;
+            });
+        }
     }
 
     // remove connection
     public void remove(String authToken){
-        connections.remove(authToken);
+        unindex(authToken, connections.remove(authToken));
+    }
+
+    // games that have at least one connection
+    int gameCount(){
+        return games.size();
+    }
+
+    // drop a connection from its game's audience, and the audience once empty
+    private void unindex(String authToken, Connection connection){
+        if(connection == null || connection.gameID == null){
+            return;
+        }
+        games.computeIfPresent(connection.gameID, (id, audience) -> {
+            audience.remove(authToken, connection);
+            return audience.isEmpty() ? null : audience;
+        });
     }
 
     // send messages to each connection
     public void broadcast(String authToken, Integer gameID, ServerMessage serverMessage) throws IOException{
+        // encode once for every recipient
+        broadcast(authToken, gameID, Serializer.gson().toJson(serverMessage));
+    }
+
+    // send an already encoded message to each connection in the game
+    public void broadcast(String authToken, Integer gameID, String message) throws IOException{
+        var audience = gameID == null ? null : games.get(gameID);
+        if(audience == null){
+            return;
+        }
         var removeList = new ArrayList<String>();
-        for(Map.Entry<String, Connection> entry : connections.entrySet()){
+        for(Map.Entry<String, Connection> entry : audience.entrySet()){
             var auth = entry.getKey();
             var connection = entry.getValue();
             if(connection.session.isOpen()){
-                if(!auth.equals(authToken) && Objects.equals(connection.gameID, gameID)){
+                if(!auth.equals(authToken)){
                     System.out.printf("Sending message to %s%n", auth);
-                    connection.send(new Gson().toJson(serverMessage));
+                    connection.send(message);
                 }
             }
             else{
@@ -43,8 +79,11 @@ public class ConnectionManager {
                 removeList.add(auth);
             }
         }
-        for(var connection : removeList){
-            connections.remove(connection);
+        for(var auth : removeList){
+            var connection = audience.get(auth);
+            if(connection != null && connections.remove(auth, connection)){
+                unindex(auth, connection);
+            }
         }
     }
 }
@@ -0,0 +1,77 @@
+package websocket;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs tasks one at a time per game, in submission order, while tasks for
+ * different games run in parallel. Each game's pending work is a chain of
+ * futures; a game with nothing queued holds no entry.
+ */
+public class GameExecutor {
+
+    /**
+     * A task that may fail; failures are passed to the task's handler and
+     * never stop later tasks for the same game from running
+     */
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    /**
+     * Receives the failure of a task
+     */
+    public interface FailureHandler {
+        void failed(Exception ex);
+    }
+
+    private final Executor executor;
+    private final ConcurrentHashMap<Integer, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    public GameExecutor(){
+        this(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    public GameExecutor(Executor executor){
+        this.executor = executor;
+    }
+
+    /**
+     * Queues a task behind every task already submitted for the game
+     *
+     * @param gameID the game the task reads or writes; null runs it on the caller
+     * @param task the task
+     * @param onFailure called on the same thread if the task throws
+     * @return completes once the task has run
+     */
+    public CompletableFuture<Void> submit(Integer gameID, Task task, FailureHandler onFailure){
+        Runnable guarded = () -> {
+            try{
+                task.run();
+            }
+            catch(Exception ex){
+                try{
+                    onFailure.failed(ex);
+                }
+                catch(RuntimeException handlerFailure){
+                    // keep the game's queue moving
+                    handlerFailure.printStackTrace();
+                }
+            }
+        };
+        if(gameID == null){
+            guarded.run();
+            return CompletableFuture.completedFuture(null);
+        }
+        // chain on handle, not the tail itself, so a task that still failed
+        // (an Error, or a failing handler) doesn't cancel the ones after it
+        CompletableFuture<Void> next = tails.compute(gameID, (id, tail) -> tail == null
+            ? CompletableFuture.runAsync(guarded, executor)
+            : tail.handle((result, ex) -> null).thenRunAsync(guarded, executor));
+        // forget the game once its queue drains
+        next.whenComplete((result, ex) -> tails.remove(gameID, next));
+        return next;
+    }
+}
@@ -7,11 +7,11 @@ import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketMessage;
 import org.eclipse.jetty.websocket.api.annotations.WebSocket;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 
 import chess.ChessBoard;
 import chess.ChessGame;
+import chess.ChessGame.GameStatus;
 import chess.ChessGame.TeamColor;
 import chess.ChessMove;
 import chess.ChessPiece;
@@ -20,6 +20,7 @@ import chess.InvalidMoveException;
 import exception.ResponseException;
 import model.GameData;
 import requests.Request;
+import serialization.Serializer;
 import service.ChessService;
 import websocket.commands.ConnectCommand;
 import websocket.commands.HighlightCommand;
@@ -47,22 +48,42 @@ public class WebSocketHandler{
     }
 
     private final ConnectionManager connections = new ConnectionManager();
+    // commands for one game run in order; different games run in parallel
+    private final GameExecutor games = new GameExecutor();
 
     @OnWebSocketMessage
-    public void onMessage(Session session, String message) throws IOException, ResponseException, JsonSyntaxException, InterruptedException{
-        UserGameCommand commandMessage = new Gson().fromJson(message, UserGameCommand.class);
+    public void onMessage(Session session, String message) throws IOException, ResponseException, JsonSyntaxException{
+        UserGameCommand commandMessage = Serializer.gson().fromJson(message, UserGameCommand.class);
+        games.submit(commandMessage.getGameID(), () -> dispatch(commandMessage, message, session), ex -> fail(session, ex));
+    }
+
+    private void dispatch(UserGameCommand commandMessage, String message, Session session) throws IOException, ResponseException{
         switch(commandMessage.getCommandType()){
-            case CONNECT -> connect(new Gson().fromJson(message, ConnectCommand.class), session);
-            case MAKE_MOVE -> makeMove(new Gson().fromJson(message, MakeMoveCommand.class), session);
+            case CONNECT -> connect(Serializer.gson().fromJson(message, ConnectCommand.class), session);
+            case MAKE_MOVE -> makeMove(Serializer.gson().fromJson(message, MakeMoveCommand.class), session);
             case LEAVE -> leave(commandMessage, session);
             case RESIGN -> resign(commandMessage, session);
-            case REQUEST_BOARD -> sendBoard(new Gson().fromJson(message, RequestBoard.class), session);
-            case OBSERVE -> connect(new Gson().fromJson(message, ConnectCommand.class), session);
-            case HIGHLIGHT -> highlightBoard(new Gson().fromJson(message, HighlightCommand.class), session);
+            case REQUEST_BOARD -> sendBoard(Serializer.gson().fromJson(message, RequestBoard.class), session);
+            case OBSERVE -> connect(Serializer.gson().fromJson(message, ConnectCommand.class), session);
+            case HIGHLIGHT -> highlightBoard(Serializer.gson().fromJson(message, HighlightCommand.class), session);
             default -> throw new IOException("Invalid");
         }
     }
 
+    // report a command that failed off the Jetty thread back to its sender
+    private void fail(Session session, Exception ex){
+        if(!session.isOpen()){
+            return;
+        }
+        try{
+            ErrorMessage message = new ErrorMessage(ERROR, ex.getMessage());
+            session.getRemote().sendString(Serializer.gson().toJson(message));
+        }
+        catch(IOException sendFailure){
+            System.out.printf("Could not report error: %s%n", sendFailure.getMessage());
+        }
+    }
+
     private void connect(ConnectCommand command, Session session) throws IOException, ResponseException{
         connections.add(command.getAuthToken(), command.getGameID(), session);
         try{
@@ -84,14 +105,14 @@ public class WebSocketHandler{
             else{
                 message = new LoadGameMessage(LOAD_GAME, game, true);
             }
-            session.getRemote().sendString(new Gson().toJson(message));
+            session.getRemote().sendString(Serializer.gson().toJson(message));
             // send messages to others
             NotificationMessage broadcastMessage = new NotificationMessage(NOTIFICATION, str);
             connections.broadcast(command.getAuthToken(), command.getGameID(), broadcastMessage);
         }
         catch(ResponseException ex){
             ErrorMessage message = new ErrorMessage(ServerMessageType.ERROR, ex.getMessage());
-            session.getRemote().sendString(new Gson().toJson(message));
+            session.getRemote().sendString(Serializer.gson().toJson(message));
         }
     }
 
@@ -104,7 +125,7 @@ public class WebSocketHandler{
         else{
             message = new LoadGameMessage(LOAD_GAME, game, command.isWhite());
         }
-        session.getRemote().sendString(new Gson().toJson(message));
+        session.getRemote().sendString(Serializer.gson().toJson(message));
     }
 
     private void highlightBoard(HighlightCommand command, Session session) throws IOException, ResponseException{
@@ -117,38 +138,35 @@ public class WebSocketHandler{
                 endLocations.add(move.getEndPosition());
             }  
             HighlightMessage message = new HighlightMessage(HIGHLIGHT, board, command.isWhite(), command.getPos(), endLocations);
-            session.getRemote().sendString(new Gson().toJson(message));
+            session.getRemote().sendString(Serializer.gson().toJson(message));
             return;
         }
         ErrorMessage message = new ErrorMessage(ERROR, "No piece found");
-        session.getRemote().sendString(new Gson().toJson(message));
+        session.getRemote().sendString(Serializer.gson().toJson(message));
     }
 
-    private void makeMove(MakeMoveCommand command, Session session) throws IOException, ResponseException, InterruptedException{
+    private void makeMove(MakeMoveCommand command, Session session) throws IOException, ResponseException{
         GameData data;
         try{
             data = chessService.getData(command.getAuthToken(), command.getGameID());
         }
         catch(ResponseException ex){
             ErrorMessage message = new ErrorMessage(ERROR, "Bad authentication");
-            session.getRemote().sendString(new Gson().toJson(message));
+            session.getRemote().sendString(Serializer.gson().toJson(message));
             return;
         }
         if(data.whiteUsername() == null || data.blackUsername() == null){
             ErrorMessage message = new ErrorMessage(ERROR, "The other user has not joined.");
-            session.getRemote().sendString(new Gson().toJson(message));
+            session.getRemote().sendString(Serializer.gson().toJson(message));
             return;
         }
         ChessGame game = data.game();
         // Check for checkmate
-        if(game.isInCheckmate(TeamColor.WHITE) || game.isInStalemate(TeamColor.WHITE)){
-            ErrorMessage notify = new ErrorMessage(ERROR, "The game is over, white is in checkmate.");
-            session.getRemote().sendString(new Gson().toJson(notify));
-            return;
-        }
-        else if(game.isInCheckmate(TeamColor.BLACK) || game.isInStalemate(TeamColor.BLACK)){
-            ErrorMessage notify = new ErrorMessage(ERROR, "The game is over, black is in checkmate.");
-            session.getRemote().sendString(new Gson().toJson(notify));
+        GameStatus status = game.evaluateStatus();
+        if(status == GameStatus.CHECKMATE || status == GameStatus.STALEMATE){
+            ErrorMessage notify = new ErrorMessage(ERROR, "The game is over, " 
+                + colorToString(game.getTeamTurn()).toLowerCase() + " is in " + status.toString().toLowerCase() + ".");
+            session.getRemote().sendString(Serializer.gson().toJson(notify));
             return;
         }
         String username = chessService.getUsername(command.getAuthToken());
@@ -167,31 +185,33 @@ public class WebSocketHandler{
                     game.makeMove(command.getMove());
                     chessService.updateGame(command.getAuthToken(), command.getGameID(), game);
                     LoadGameMessage newBoard = new LoadGameMessage(LOAD_GAME, board, command.isWhite());
-                    session.getRemote().sendString(new Gson().toJson(newBoard));
+                    // encode once for the mover and everyone else in the game
+                    String boardJson = Serializer.gson().toJson(newBoard);
+                    session.getRemote().sendString(boardJson);
                     // broadcast new board & notification of made move
-                    newBoard = new LoadGameMessage(LOAD_GAME, board, command.isWhite());
-                    connections.broadcast(command.getAuthToken(), command.getGameID(), newBoard);
+                    connections.broadcast(command.getAuthToken(), command.getGameID(), boardJson);
                     NotificationMessage notify = new NotificationMessage(NOTIFICATION, "Move made: " + command.getMove().toString());
                     connections.broadcast(command.getAuthToken(), command.getGameID(), notify);
-                    if(game.isInCheck(oppo)){
-                        Thread.sleep(200);
-                        notify = new NotificationMessage(NOTIFICATION, colorToString(oppo) + " is in check!");
+                    status = game.evaluateStatus();
+                    if(status == GameStatus.CHECK || status == GameStatus.CHECKMATE){
+                        String state = (status == GameStatus.CHECKMATE) ? " is in checkmate!" : " is in check!";
+                        notify = new NotificationMessage(NOTIFICATION, colorToString(oppo) + state);
                         connections.broadcast("", command.getGameID(), notify);
                     }
                     return;
                 } catch (InvalidMoveException e) {
                     // send error
                     message = new ErrorMessage(ERROR, e.getMessage());
-                    session.getRemote().sendString(new Gson().toJson(message));
+                    session.getRemote().sendString(Serializer.gson().toJson(message));
                     return;
                 }
             }
             message = new ErrorMessage(ERROR, "This piece does not exist.");
-            session.getRemote().sendString(new Gson().toJson(message));
+            session.getRemote().sendString(Serializer.gson().toJson(message));
         }
         else{
             message = new ErrorMessage(ERROR, "You cannot make a move as an observer.");
-            session.getRemote().sendString(new Gson().toJson(message));
+            session.getRemote().sendString(Serializer.gson().toJson(message));
         }
 
     }
@@ -229,19 +249,19 @@ public class WebSocketHandler{
             || game.blackUsername() != null && game.blackUsername().equals(username)){
                 chessService.deleteGame(command.getAuthToken(), new Request.DeleteGame(command.getGameID()));
                 NotificationMessage message = new NotificationMessage(NOTIFICATION, "You have resigned.");
-                session.getRemote().sendString(new Gson().toJson(message));
+                session.getRemote().sendString(Serializer.gson().toJson(message));
                 // Broadcast
                 NotificationMessage notify = new NotificationMessage(NOTIFICATION, username + " has resigned.");
                 connections.broadcast(command.getAuthToken(), command.getGameID(), notify);
             }
             else{
                 ErrorMessage message = new ErrorMessage(ServerMessageType.ERROR, "You cannot resign a game you are not in.");
-                session.getRemote().sendString(new Gson().toJson(message));
+                session.getRemote().sendString(Serializer.gson().toJson(message));
             }
             
         } catch (ResponseException ex) {
             ErrorMessage message = new ErrorMessage(ServerMessageType.ERROR, ex.getMessage());
-            session.getRemote().sendString(new Gson().toJson(message));
+            session.getRemote().sendString(Serializer.gson().toJson(message));
         }
     }
 
@@ -0,0 +1,155 @@
+package dataaccess;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import exception.ResponseException;
+import model.GameData;
+
+public class CachingGameDAOTests {
+
+    private CountingGameDAO backing;
+    private AtomicLong now;
+    private CachingGameDAO cache;
+
+    @BeforeEach
+    public void setup(){
+        backing = new CountingGameDAO();
+        now = new AtomicLong();
+        cache = new CachingGameDAO(backing, 2, 100, now::get);
+    }
+
+    @Test
+    @DisplayName("Hit skips backing store")
+    public void hitSkipsBacking() throws ResponseException{
+        int id = cache.createGame("game");
+        GameData first = cache.getGame(id);
+        Assertions.assertEquals(first.game().toFen(), cache.getGame(id).game().toFen());
+        Assertions.assertEquals(1, backing.reads);
+    }
+
+    @Test
+    @DisplayName("Readers get their own copy")
+    public void readersGetCopies() throws Exception{
+        int id = cache.createGame("game");
+        GameData first = cache.getGame(id);
+        String start = first.game().toFen();
+        first.game().makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        GameData second = cache.getGame(id);
+        Assertions.assertNotSame(first.game(), second.game());
+        Assertions.assertEquals(start, second.game().toFen());
+    }
+
+    @Test
+    @DisplayName("Game update writes through")
+    public void updateWritesThrough() throws Exception{
+        int id = cache.createGame("game");
+        cache.getGame(id);
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        cache.updateGame(id, game);
+        Assertions.assertEquals(game.toFen(), cache.getGame(id).game().toFen());
+        Assertions.assertEquals(1, backing.reads);
+        Assertions.assertSame(game, backing.getGame(id).game());
+        Assertions.assertEquals("game", cache.getGame(id).gameName());
+    }
+
+    @Test
+    @DisplayName("Overlapping writes leave the cache matching the database")
+    public void overlappingWrites() throws Exception{
+        CountDownLatch firstWritten = new CountDownLatch(1);
+        CountDownLatch secondDone = new CountDownLatch(1);
+        MemoryGameDAO slowFirst = new MemoryGameDAO() {
+            @Override
+            public void updateGame(int gameID, ChessGame game){
+                super.updateGame(gameID, game);
+                if(firstWritten.getCount() > 0){
+                    firstWritten.countDown();
+                    try{
+                        Assertions.assertTrue(secondDone.await(10, TimeUnit.SECONDS));
+                    }
+                    catch(InterruptedException ex){
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        };
+        CachingGameDAO racing = new CachingGameDAO(slowFirst, 2, 100, now::get);
+        int id = racing.createGame("game");
+        racing.getGame(id);
+        ChessGame first = new ChessGame();
+        first.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        ChessGame second = new ChessGame();
+        second.makeMove(new ChessMove(new ChessPosition(2, 4), new ChessPosition(4, 4), null));
+        Thread writer = new Thread(() -> {
+            try{
+                racing.updateGame(id, first);
+            }
+            catch(ResponseException ex){
+                throw new RuntimeException(ex);
+            }
+        });
+        writer.start();
+        Assertions.assertTrue(firstWritten.await(10, TimeUnit.SECONDS));
+        racing.updateGame(id, second);
+        secondDone.countDown();
+        writer.join();
+        // the second write reached the database last, though the first finished last
+        Assertions.assertEquals(second.toFen(), slowFirst.getGame(id).game().toFen());
+        Assertions.assertEquals(second.toFen(), racing.getGame(id).game().toFen());
+    }
+
+    @Test
+    @DisplayName("Player changes invalidate")
+    public void playerChangesInvalidate() throws ResponseException{
+        int id = cache.createGame("game");
+        cache.getGame(id);
+        cache.updateGame(id, "white", null);
+        Assertions.assertEquals("white", cache.getGame(id).whiteUsername());
+        cache.removeUser(id, "white");
+        Assertions.assertNull(cache.getGame(id).whiteUsername());
+        cache.deleteGame(id);
+        Assertions.assertNull(cache.getGame(id));
+    }
+
+    @Test
+    @DisplayName("Evicts least recently used")
+    public void evictsLeastRecentlyUsed() throws ResponseException{
+        int a = cache.createGame("a");
+        int b = cache.createGame("b");
+        int c = cache.createGame("c");
+        cache.getGame(a);
+        cache.getGame(b);
+        cache.getGame(a);
+        cache.getGame(c);
+        Assertions.assertEquals(2, cache.size());
+        int reads = backing.reads;
+        cache.getGame(a);
+        Assertions.assertEquals(reads, backing.reads);
+        cache.getGame(b);
+        Assertions.assertEquals(reads + 1, backing.reads);
+    }
+
+    @Test
+    @DisplayName("Evicts idle games")
+    public void evictsIdle() throws ResponseException{
+        int a = cache.createGame("a");
+        int b = cache.createGame("b");
+        cache.getGame(a);
+        now.set(150);
+        cache.getGame(b);
+        Assertions.assertEquals(1, cache.size());
+        now.set(300);
+        cache.getGame(b);
+        Assertions.assertEquals(3, backing.reads);
+    }
+}
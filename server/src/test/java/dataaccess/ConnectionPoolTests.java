@@ -0,0 +1,142 @@
+package dataaccess;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ConnectionPoolTests {
+
+    // stands in for a physical connection, tracking only whether it was closed
+    private static Connection fakeConnection(){
+        boolean[] closed = {false};
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+            (proxy, method, args) -> switch(method.getName()){
+                case "close" -> {
+                    closed[0] = true;
+                    yield null;
+                }
+                case "isClosed" -> closed[0];
+                case "getAutoCommit", "isValid" -> true;
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> null;
+            });
+    }
+
+    @Test
+    @DisplayName("Returned connection is reused")
+    public void reuse() throws SQLException{
+        try(ConnectionPool pool = new ConnectionPool(ConnectionPoolTests::fakeConnection, 0, 2, 60_000, 100)){
+            Connection first = pool.getConnection();
+            first.close();
+            pool.getConnection().close();
+            ConnectionPool.Metrics metrics = pool.metrics();
+            Assertions.assertEquals(1, metrics.created());
+            Assertions.assertEquals(2, metrics.acquired());
+            Assertions.assertEquals(1, metrics.idle());
+            Assertions.assertTrue(first.isClosed());
+            Assertions.assertThrows(SQLException.class, () -> first.prepareStatement("SELECT 1"));
+        }
+    }
+
+    @Test
+    @DisplayName("Exhausted pool times out")
+    public void exhausted() throws SQLException{
+        try(ConnectionPool pool = new ConnectionPool(ConnectionPoolTests::fakeConnection, 0, 2, 60_000, 50)){
+            Connection a = pool.getConnection();
+            pool.getConnection();
+            Assertions.assertThrows(SQLException.class, pool::getConnection);
+            Assertions.assertEquals(1, pool.metrics().timeouts());
+            a.close();
+            Assertions.assertNotNull(pool.getConnection());
+            Assertions.assertEquals(2, pool.metrics().open());
+        }
+    }
+
+    @Test
+    @DisplayName("Waiter gets returned connection")
+    public void waiterWakes() throws Exception{
+        try(ConnectionPool pool = new ConnectionPool(ConnectionPoolTests::fakeConnection, 0, 1, 60_000, 5_000)){
+            Connection held = pool.getConnection();
+            Thread returner = new Thread(() -> {
+                try{
+                    Thread.sleep(50);
+                    held.close();
+                }
+                catch(InterruptedException | SQLException ex){
+                    Thread.currentThread().interrupt();
+                }
+            });
+            returner.start();
+            pool.getConnection().close();
+            returner.join();
+            Assertions.assertEquals(1, pool.metrics().created());
+        }
+    }
+
+    @Test
+    @DisplayName("Idle connections evicted down to minimum")
+    public void idleEviction() throws Exception{
+        try(ConnectionPool pool = new ConnectionPool(ConnectionPoolTests::fakeConnection, 1, 3, 10, 100)){
+            Connection a = pool.getConnection();
+            Connection b = pool.getConnection();
+            Connection c = pool.getConnection();
+            a.close();
+            b.close();
+            c.close();
+            Thread.sleep(30);
+            pool.getConnection().close();
+            Assertions.assertEquals(1, pool.metrics().open());
+        }
+    }
+
+    @Test
+    @DisplayName("Minimum connections open up front")
+    public void prefilled() throws SQLException{
+        try(ConnectionPool pool = new ConnectionPool(ConnectionPoolTests::fakeConnection, 2, 4, 60_000, 100)){
+            Assertions.assertEquals(2, pool.metrics().open());
+            Assertions.assertEquals(2, pool.metrics().idle());
+            pool.getConnection().close();
+            Assertions.assertEquals(2, pool.metrics().created());
+        }
+    }
+
+    @Test
+    @DisplayName("Slow physical close does not block the pool")
+    public void closeOutsideLock() throws Exception{
+        CountDownLatch closing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Connection slow = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+            new Class<?>[] {Connection.class}, (proxy, method, args) -> switch(method.getName()){
+                case "close" -> {
+                    closing.countDown();
+                    release.await(10, TimeUnit.SECONDS);
+                    yield null;
+                }
+                case "getAutoCommit", "isValid" -> true;
+                case "isClosed" -> false;
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> null;
+            });
+        ConnectionPool pool = new ConnectionPool(() -> slow, 1, 1, 60_000, 100);
+        Thread closer = new Thread(pool::close);
+        closer.start();
+        Assertions.assertTrue(closing.await(10, TimeUnit.SECONDS));
+        CompletableFuture<ConnectionPool.Metrics> metrics = CompletableFuture.supplyAsync(pool::metrics);
+        try{
+            Assertions.assertEquals(0, metrics.get(5, TimeUnit.SECONDS).open());
+        }
+        finally{
+            release.countDown();
+            closer.join();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package dataaccess;
+
+import chess.ChessGame;
+import model.GameData;
+
+/**
+ * In-memory GameDAO that counts game reads and game state writes, for tests
+ * of the DAOs that wrap another one
+ */
+class CountingGameDAO extends MemoryGameDAO {
+    int reads;
+    int writes;
+
+    @Override
+    public synchronized GameData getGame(int gameID){
+        reads++;
+        return super.getGame(gameID);
+    }
+
+    @Override
+    public synchronized void updateGame(int gameID, ChessGame game){
+        writes++;
+        super.updateGame(gameID, game);
+    }
+}
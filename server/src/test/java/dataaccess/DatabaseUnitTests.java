@@ -13,6 +13,12 @@ import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 
+import com.google.gson.Gson;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
 import exception.ResponseException;
 import model.AuthData;
 import model.GameData;
@@ -259,6 +265,30 @@ public class DatabaseUnitTests {
         gameDAO.clear();
     }
 
+    // positive updateGame with a game in progress
+    @Test
+    @Order(20)
+    public void validUpdateGameState() throws ResponseException, InvalidMoveException{
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        gameDAO.updateGame(1, game);
+        ChessGame stored = gameDAO.getGame(1).game();
+        Assertions.assertEquals(game.toFen(), stored.toFen());
+    }
+
+    // games stored as JSON before the binary column format still load
+    @Test
+    @Order(21)
+    public void legacyJsonGame() throws ResponseException, SQLException{
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/R3K2R b KQ - 0 1");
+        try(var conn = DatabaseManager.getConnection();
+            var update = conn.prepareStatement("UPDATE game SET game = ? WHERE id = 1")){
+            update.setString(1, new Gson().toJson(game));
+            update.executeUpdate();
+        }
+        Assertions.assertEquals(game.toFen(), gameDAO.getGame(1).game().toFen());
+    }
+
 
     private static String generateToken(){
         return UUID.randomUUID().toString();
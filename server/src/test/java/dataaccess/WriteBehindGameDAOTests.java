@@ -0,0 +1,110 @@
+package dataaccess;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+
+public class WriteBehindGameDAOTests {
+
+    private CountingGameDAO backing;
+    private WriteBehindGameDAO writer;
+    private int gameID;
+
+    @BeforeEach
+    public void setup(){
+        backing = new CountingGameDAO();
+        // long interval so the test decides when writes happen
+        writer = new WriteBehindGameDAO(backing, 2, 60_000, 3);
+        gameID = backing.createGame("game");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception{
+        writer.close();
+    }
+
+    @Test
+    @DisplayName("Queued state is read back")
+    public void readsQueuedState() throws Exception{
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        writer.updateGame(gameID, game);
+        Assertions.assertEquals(0, backing.writes);
+        Assertions.assertEquals(game.toFen(), writer.getGame(gameID).game().toFen());
+        Assertions.assertEquals(1, writer.metrics().pending());
+    }
+
+    @Test
+    @DisplayName("Updates coalesce and flush on close")
+    public void coalesceAndClose() throws Exception{
+        ChessGame game = new ChessGame();
+        writer.updateGame(gameID, game);
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        writer.updateGame(gameID, game);
+        writer.close();
+        Assertions.assertEquals(1, backing.writes);
+        Assertions.assertEquals(game.toFen(), backing.getGame(gameID).game().toFen());
+        WriteBehindGameDAO.Metrics metrics = writer.metrics();
+        Assertions.assertEquals(2, metrics.queued());
+        Assertions.assertEquals(1, metrics.coalesced());
+        Assertions.assertEquals(1, metrics.written());
+        Assertions.assertEquals(0, metrics.pending());
+    }
+
+    @Test
+    @DisplayName("Background writer saves state")
+    public void backgroundWrite() throws Exception{
+        WriteBehindGameDAO fast = new WriteBehindGameDAO(backing, 2, 1, 3);
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        fast.updateGame(gameID, game);
+        for(int i = 0; i < 1000 && fast.metrics().written() == 0; i++){
+            Thread.sleep(5);
+        }
+        Assertions.assertEquals(game.toFen(), backing.getGame(gameID).game().toFen());
+        fast.close();
+    }
+
+    @Test
+    @DisplayName("Deleted game is not written")
+    public void deleteDropsQueued() throws Exception{
+        writer.updateGame(gameID, new ChessGame());
+        writer.deleteGame(gameID);
+        writer.close();
+        Assertions.assertEquals(0, backing.writes);
+        Assertions.assertNull(backing.getGame(gameID));
+    }
+
+    @Test
+    @DisplayName("Failing writes back off and are dropped")
+    public void failingWritesDropped() throws Exception{
+        WriteBehindGameDAO retrying = new WriteBehindGameDAO(new MemoryGameDAO() {
+            @Override
+            public void updateGame(int gameID, ChessGame game){
+                throw new IllegalStateException("database down");
+            }
+        }, 2, 1, 3);
+        List<Integer> dropped = Collections.synchronizedList(new ArrayList<>());
+        retrying.onDrop(dropped::add);
+        retrying.updateGame(gameID, new ChessGame());
+        for(int i = 0; i < 1000 && dropped.isEmpty(); i++){
+            Thread.sleep(5);
+        }
+        WriteBehindGameDAO.Metrics metrics = retrying.metrics();
+        Assertions.assertEquals(1, metrics.dropped());
+        Assertions.assertEquals(3, metrics.failed());
+        Assertions.assertEquals(0, metrics.pending());
+        Assertions.assertEquals(List.of(gameID), dropped);
+        retrying.close();
+    }
+}
@@ -2,6 +2,8 @@ package passoff.server;
 
 import com.google.gson.GsonBuilder;
 
+import serialization.ChessTypeAdapters;
+
 public class TestFactory {
 
     public static Long getMessageTime() {
@@ -24,7 +26,8 @@ public class TestFactory {
          * or deserialize chess objects like ChessMove, you may add type adapters here.
          */
         GsonBuilder builder = new GsonBuilder();
-        // builder.registerTypeAdapter(ChessMove.class, /*type adapter or json serializer */);
+        // The server writes boards, moves and positions in compact forms (see ChessTypeAdapters)
+        ChessTypeAdapters.register(builder);
         return builder;
     }
 
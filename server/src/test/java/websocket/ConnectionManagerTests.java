@@ -0,0 +1,108 @@
+package websocket;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ConnectionManagerTests {
+
+    // stands in for a client session, recording the text it is sent
+    private static class StubSession {
+        final List<String> received = new ArrayList<>();
+        boolean open = true;
+        final Session session;
+
+        StubSession(){
+            RemoteEndpoint remote = (RemoteEndpoint) Proxy.newProxyInstance(RemoteEndpoint.class.getClassLoader(),
+                new Class<?>[] {RemoteEndpoint.class}, (proxy, method, args) -> {
+                    if(method.getName().equals("sendString") && args.length == 1){
+                        received.add((String) args[0]);
+                    }
+                    return null;
+                });
+            session = (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[] {Session.class},
+                (proxy, method, args) -> switch(method.getName()){
+                    case "isOpen" -> open;
+                    case "getRemote" -> remote;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+        }
+    }
+
+    private ConnectionManager connections;
+
+    @BeforeEach
+    public void setup(){
+        connections = new ConnectionManager();
+    }
+
+    @Test
+    @DisplayName("Broadcast reaches only the game's other connections")
+    public void broadcastToGame() throws Exception{
+        StubSession mover = new StubSession();
+        StubSession opponent = new StubSession();
+        StubSession elsewhere = new StubSession();
+        connections.add("mover", 1, mover.session);
+        connections.add("opponent", 1, opponent.session);
+        connections.add("elsewhere", 2, elsewhere.session);
+        connections.broadcast("mover", 1, "hello");
+        Assertions.assertEquals(List.of(), mover.received);
+        Assertions.assertEquals(List.of("hello"), opponent.received);
+        Assertions.assertEquals(List.of(), elsewhere.received);
+    }
+
+    @Test
+    @DisplayName("Re-adding a token moves it to the new game")
+    public void readdMovesGame() throws Exception{
+        StubSession first = new StubSession();
+        StubSession second = new StubSession();
+        connections.add("token", 1, first.session);
+        connections.add("token", 2, second.session);
+        Assertions.assertEquals(1, connections.gameCount());
+        connections.broadcast("", 1, "one");
+        connections.broadcast("", 2, "two");
+        Assertions.assertEquals(List.of(), first.received);
+        Assertions.assertEquals(List.of("two"), second.received);
+    }
+
+    @Test
+    @DisplayName("Removing the last connection drops the game")
+    public void removeLastDropsGame(){
+        connections.add("a", 1, new StubSession().session);
+        connections.add("b", 1, new StubSession().session);
+        connections.add("lobby", null, new StubSession().session);
+        connections.remove("a");
+        Assertions.assertEquals(1, connections.gameCount());
+        connections.remove("b");
+        Assertions.assertEquals(0, connections.gameCount());
+        connections.remove("lobby");
+        Assertions.assertTrue(connections.connections.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Closed sessions are cleaned up during broadcast")
+    public void closedSessionRemoved() throws Exception{
+        StubSession closed = new StubSession();
+        StubSession open = new StubSession();
+        connections.add("closed", 1, closed.session);
+        connections.add("open", 1, open.session);
+        closed.open = false;
+        connections.broadcast("", 1, "move");
+        Assertions.assertEquals(List.of(), closed.received);
+        Assertions.assertEquals(List.of("move"), open.received);
+        Assertions.assertFalse(connections.connections.containsKey("closed"));
+        open.open = false;
+        connections.broadcast("", 1, "move");
+        Assertions.assertEquals(0, connections.gameCount());
+        Assertions.assertTrue(connections.connections.isEmpty());
+    }
+}
@@ -0,0 +1,72 @@
+package websocket;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class GameExecutorTests {
+
+    @Test
+    @DisplayName("Same game runs in order")
+    public void sameGameInOrder() throws Exception{
+        GameExecutor executor = new GameExecutor();
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Void>> done = new ArrayList<>();
+        for(int i = 0; i < 200; i++){
+            int n = i;
+            done.add(executor.submit(1, () -> order.add(n), Assertions::fail));
+        }
+        CompletableFuture.allOf(done.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        for(int i = 0; i < 200; i++){
+            Assertions.assertEquals(i, order.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Different games run in parallel")
+    public void differentGamesParallel() throws Exception{
+        GameExecutor executor = new GameExecutor();
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        GameExecutor.Task waitForOther = () -> {
+            bothRunning.countDown();
+            Assertions.assertTrue(bothRunning.await(10, TimeUnit.SECONDS));
+        };
+        CompletableFuture.allOf(executor.submit(1, waitForOther, Assertions::fail),
+            executor.submit(2, waitForOther, Assertions::fail)).get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Failure does not block game")
+    public void failureDoesNotBlock() throws Exception{
+        GameExecutor executor = new GameExecutor();
+        List<Exception> failures = new ArrayList<>();
+        executor.submit(1, () -> {
+            throw new IllegalStateException("bad move");
+        }, failures::add);
+        boolean[] ran = {false};
+        executor.submit(1, () -> ran[0] = true, failures::add).get(10, TimeUnit.SECONDS);
+        Assertions.assertTrue(ran[0]);
+        Assertions.assertEquals(1, failures.size());
+        Assertions.assertEquals("bad move", failures.get(0).getMessage());
+    }
+
+    @Test
+    @DisplayName("Error does not block game")
+    public void errorDoesNotBlock() throws Exception{
+        GameExecutor executor = new GameExecutor();
+        CompletableFuture<Void> failed = executor.submit(1, () -> {
+            throw new StackOverflowError();
+        }, Assertions::fail);
+        boolean[] ran = {false};
+        executor.submit(1, () -> ran[0] = true, Assertions::fail).get(10, TimeUnit.SECONDS);
+        Assertions.assertTrue(ran[0]);
+        Assertions.assertTrue(failed.isCompletedExceptionally());
+    }
+}
@@ -2,7 +2,6 @@ package chess;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Objects;
 
 import chess.ChessPiece.PieceType;
 
@@ -16,8 +15,40 @@ public class ChessBoard {
 
     private ChessPiece[][] board;
 
+    // One bitboard per piece kind, indexed by pieceIndex(color, type)
+    // Bit 0 is a1, bit 7 is h1, bit 63 is h8
+    private transient long[] pieceBitboards = new long[12];
+    private transient long[] teamOccupancy = new long[2];
+    // Zobrist hash of the piece placement, kept up to date by every change to the bitboards
+    private transient long zobristKey;
+    // The array the bitboards were last built from (Gson and setBoard swap the array out)
+    private transient ChessPiece[][] indexedBoard;
+    // Moved and captured pieces saved by the packed makeMove, in pairs, popped by unmakeMove
+    private transient ChessPiece[] undoStack = new ChessPiece[32];
+    private transient long[] versionStack = new long[16];
+    private transient int undoDepth;
+    // Position version: a fresh number after every edit, restored by unmakeMove
+    // so a position always keeps the number it was first given
+    private transient long version;
+    private transient long lastVersion;
+
+    // FEN letter of each PieceType, by ordinal, and pieceIndex + 1 for each FEN
+    // letter (0 for none). Indexes rather than pieces, since ChessPiece's static
+    // init calls back into this class and its shared pieces may not exist yet.
+    private static final String FEN_LETTERS = "kqbnrp";
+    private static final byte[] FEN_PIECES = new byte['z' + 1];
+
+    static {
+        for(PieceType type : PieceType.values()){
+            char c = FEN_LETTERS.charAt(type.ordinal());
+            FEN_PIECES[Character.toUpperCase(c)] = (byte) (pieceIndex(ChessGame.TeamColor.WHITE, type) + 1);
+            FEN_PIECES[c] = (byte) (pieceIndex(ChessGame.TeamColor.BLACK, type) + 1);
+        }
+    }
+
     public ChessBoard() {
         board = new ChessPiece[8][8];
+        indexedBoard = board;
     }
 
     /**
@@ -25,13 +56,23 @@ public class ChessBoard {
      *
      * @param position where to add the piece to
      * @param piece    the piece to add
+     * @throws IllegalArgumentException if the piece has no team color or type
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        board[rowToArray(position.getRow())][colToArray(position.getColumn())] = piece;
+        requireComplete(piece);
+        ensureIndexed();
+        int i = rowToArray(position.getRow());
+        int j = colToArray(position.getColumn());
+        int square = squareOf(position.getRow(), position.getColumn());
+        clearSquare(board[i][j], square);
+        board[i][j] = piece;
+        fillSquare(piece, square);
+        touch();
     }
 
     /**
-     * 
+     * Every piece must have a team color and type; the next query that reads
+     * the board throws IllegalArgumentException otherwise
      * @param board the board to set
      * @return void
      */
@@ -41,6 +82,8 @@ public class ChessBoard {
 
     /**
      * Returns the array of the pieces
+     * Writes made directly to the array are not seen by the bitboard queries,
+     * use addPiece or setBoard instead
      * @return ChessPiece[][]
      */
     public ChessPiece[][] getBoard(){
@@ -75,7 +118,7 @@ public class ChessBoard {
      * @param move the move to take
      */
     public void movePiece(ChessMove move){
-
+        ensureIndexed();
         ChessPiece piece = getPiece(move.getStartPosition());
         ChessGame.TeamColor teamColor = piece.getTeamColor();
 
@@ -83,14 +126,136 @@ public class ChessBoard {
         int jOrig = colToArray(move.getStartPosition().getColumn());
         int iFini = rowToArray(move.getEndPosition().getRow());
         int jFini = colToArray(move.getEndPosition().getColumn());
+        int from = squareOf(move.getStartPosition().getRow(), move.getStartPosition().getColumn());
+        int to = squareOf(move.getEndPosition().getRow(), move.getEndPosition().getColumn());
 
+        clearSquare(board[iFini][jFini], to);
+        clearSquare(piece, from);
         if(move.getPromotionPiece() != null){
-            board[iFini][jFini] = new ChessPiece(teamColor, move.getPromotionPiece());
+            board[iFini][jFini] = ChessPiece.of(teamColor, move.getPromotionPiece());
         }
         else{
             board[iFini][jFini] =  board[iOrig][jOrig];
         }
         board[iOrig][jOrig] = null;
+        fillSquare(board[iFini][jFini], to);
+        touch();
+    }
+
+    /**
+     * Makes a packed move (see ChessMove) in place without any legality checking
+     * or allocating an undo record; must be taken back with unmakeMove(int)
+     */
+    void makeMove(int move){
+        ensureIndexed();
+        if(undoStack == null || undoDepth + 2 > undoStack.length){
+            undoStack = Arrays.copyOf(undoStack == null ? new ChessPiece[0] : undoStack, Math.max(32, undoDepth * 2));
+            versionStack = Arrays.copyOf(versionStack == null ? new long[0] : versionStack, undoStack.length / 2);
+        }
+        versionStack[undoDepth / 2] = version;
+        undoStack[undoDepth++] = getPiece(ChessMove.startSquare(move));
+        undoStack[undoDepth++] = getPiece(captureSquare(move));
+        applyMove(move);
+        touch();
+    }
+
+    /**
+     * Makes a packed move for good, with no undo record kept
+     */
+    void playMove(int move){
+        ensureIndexed();
+        applyMove(move);
+        touch();
+    }
+
+    private void applyMove(int move){
+        int from = ChessMove.startSquare(move);
+        int to = ChessMove.endSquare(move);
+        int captureSquare = captureSquare(move);
+        ChessPiece moved = getPiece(from);
+        clearSquare(getPiece(captureSquare), captureSquare);
+        setPiece(captureSquare, null);
+        clearSquare(moved, from);
+        ChessPiece.PieceType promotion = ChessMove.promotionPiece(move);
+        ChessPiece placed = (promotion != null) ? ChessPiece.of(moved.getTeamColor(), promotion) : moved;
+        setPiece(to, placed);
+        setPiece(from, null);
+        fillSquare(placed, to);
+        if((move & ChessMove.CASTLE_FLAG) != 0){
+            shiftPiece(castleRookSquare(from, to), (from + to) >>> 1);
+        }
+    }
+
+    /**
+     * Takes back the last packed move made with makeMove(int)
+     */
+    void unmakeMove(int move){
+        int from = ChessMove.startSquare(move);
+        int to = ChessMove.endSquare(move);
+        int captureSquare = captureSquare(move);
+        ChessPiece captured = undoStack[--undoDepth];
+        ChessPiece moved = undoStack[--undoDepth];
+        undoStack[undoDepth] = null;
+        undoStack[undoDepth + 1] = null;
+
+        if((move & ChessMove.CASTLE_FLAG) != 0){
+            shiftPiece((from + to) >>> 1, castleRookSquare(from, to));
+        }
+        clearSquare(getPiece(to), to);
+        setPiece(to, null);
+        setPiece(captureSquare, captured);
+        fillSquare(captured, captureSquare);
+        setPiece(from, moved);
+        fillSquare(moved, from);
+        version = versionStack[undoDepth / 2];
+    }
+
+    /**
+     * @return square of the piece a packed move captures (differs from the end
+     * square only for en passant)
+     */
+    private static int captureSquare(int move){
+        int to = ChessMove.endSquare(move);
+        if((move & ChessMove.EN_PASSANT_FLAG) != 0){
+            return (ChessMove.startSquare(move) & ~7) | (to & 7);
+        }
+        return to;
+    }
+
+    /**
+     * @return starting square of the rook in a castle, from the king's move
+     */
+    static int castleRookSquare(int kingFrom, int kingTo){
+        return (kingTo > kingFrom) ? kingTo + 1 : kingTo - 2;
+    }
+
+    private void shiftPiece(int from, int to){
+        ChessPiece piece = getPiece(from);
+        clearSquare(piece, from);
+        setPiece(from, null);
+        setPiece(to, piece);
+        fillSquare(piece, to);
+    }
+
+    /**
+     * Number identifying the current position of this board; any edit gives a
+     * number never used before, unmakeMove brings back the previous one
+     */
+    long getVersion(){
+        ensureIndexed();
+        return version;
+    }
+
+    private void touch(){
+        version = ++lastVersion;
+    }
+
+    ChessPiece getPiece(int square){
+        return board[7 - (square >>> 3)][square & 7];
+    }
+
+    private void setPiece(int square, ChessPiece piece){
+        board[7 - (square >>> 3)][square & 7] = piece;
     }
 
     /**
@@ -99,13 +264,11 @@ public class ChessBoard {
      * @return locations of team's chess pieces
      */
     public ArrayList<ChessPosition> getTeamPositions(ChessGame.TeamColor teamColor){
-        ArrayList<ChessPosition> teamPositions = new ArrayList<>();
-        for(int i = 0; i < 8; i++){     
-            for(int j = 0; j < 8; j++){
-                if(board[i][j] != null && board[i][j].getTeamColor() == teamColor){
-                    teamPositions.add(new ChessPosition(arrayToRow(i), arrayToCol(j)));
-                }
-            }
+        long occupied = getOccupancy(teamColor);
+        ArrayList<ChessPosition> teamPositions = new ArrayList<>(Long.bitCount(occupied));
+        while(occupied != 0){
+            teamPositions.add(positionOf(Long.numberOfTrailingZeros(occupied)));
+            occupied &= occupied - 1;
         }
         return teamPositions;
     }
@@ -116,15 +279,81 @@ public class ChessBoard {
      * @return position (row,col) of king
      */
     public ChessPosition getKingLocation(ChessGame.TeamColor teamColor){
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                ChessPiece piece = board[i][j];
-                if(piece != null && piece.getPieceType() == PieceType.KING && piece.getTeamColor() == teamColor){
-                    return new ChessPosition(arrayToRow(i), arrayToCol(j));
-                }
-            }
+        long kings = getPieceBitboard(teamColor, PieceType.KING);
+        if(kings == 0){
+            return null;
+        }
+        return positionOf(Long.numberOfTrailingZeros(kings));
+    }
+
+    /**
+     * 
+     * @param teamColor color of the pieces
+     * @param type type of the pieces
+     * @return bitboard of every square holding that piece (bit 0 = a1, bit 63 = h8)
+     */
+    public long getPieceBitboard(ChessGame.TeamColor teamColor, PieceType type){
+        ensureIndexed();
+        return pieceBitboards[pieceIndex(teamColor, type)];
+    }
+
+    /**
+     * 
+     * @param teamColor color to check for
+     * @return bitboard of every square holding one of the team's pieces
+     */
+    public long getOccupancy(ChessGame.TeamColor teamColor){
+        ensureIndexed();
+        return teamOccupancy[teamColor.ordinal()];
+    }
+
+    /**
+     * Zobrist hash of the piece placement, updated incrementally as pieces move
+     * (side to move is folded in by ChessGame.getPositionKey)
+     * 
+     * @return 64-bit position key
+     */
+    public long getZobristKey(){
+        ensureIndexed();
+        return zobristKey;
+    }
+
+    /**
+     * 
+     * @return bitboard of every occupied square
+     */
+    public long getOccupancy(){
+        ensureIndexed();
+        return teamOccupancy[0] | teamOccupancy[1];
+    }
+
+    /**
+     * Determines if any piece of the given team attacks a square, without
+     * generating that team's moves
+     * 
+     * @param position square to look at
+     * @param attacker team doing the attacking
+     * @return True if a piece of attacker's team could capture on that square
+     */
+    public boolean isSquareAttacked(ChessPosition position, ChessGame.TeamColor attacker){
+        return isSquareAttacked(squareOf(position.getRow(), position.getColumn()), attacker);
+    }
+
+    boolean isSquareAttacked(int square, ChessGame.TeamColor attacker){
+        ensureIndexed();
+        ChessGame.TeamColor defender = (attacker == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        // A pawn attacks this square from wherever a defending pawn here would attack
+        if((ChessPiece.PAWN_ATTACKS[defender.ordinal()][square] & pieceBitboards[pieceIndex(attacker, PieceType.PAWN)]) != 0
+            || (ChessPiece.KNIGHT_ATTACKS[square] & pieceBitboards[pieceIndex(attacker, PieceType.KNIGHT)]) != 0
+            || (ChessPiece.KING_ATTACKS[square] & pieceBitboards[pieceIndex(attacker, PieceType.KING)]) != 0){
+            return true;
         }
-        return null;
+        long queens = pieceBitboards[pieceIndex(attacker, PieceType.QUEEN)];
+        long straight = pieceBitboards[pieceIndex(attacker, PieceType.ROOK)] | queens;
+        long diagonal = pieceBitboards[pieceIndex(attacker, PieceType.BISHOP)] | queens;
+        long occupied = teamOccupancy[0] | teamOccupancy[1];
+        return (ChessPiece.rookAttacks(square, occupied) & straight) != 0
+            || (ChessPiece.bishopAttacks(square, occupied) & diagonal) != 0;
     }
 
     /**
@@ -134,31 +363,198 @@ public class ChessBoard {
     public void resetBoard() {
         // Order LR -> rook, knight, bishop, queen, king, bishop, knight, rook
         // Set black special
-        board[0][0] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
-        board[0][1] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-        board[0][2] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-        board[0][3] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
-        board[0][4] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
-        board[0][5] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-        board[0][6] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-        board[0][7] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
+        board[0][0] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
+        board[0][1] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
+        board[0][2] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
+        board[0][3] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
+        board[0][4] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+        board[0][5] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
+        board[0][6] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
+        board[0][7] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
         // Set black pawns
         for(int i = 0; i < 8; i++) {
-            board[1][i] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+            board[1][i] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
         }
         // Set white pawns
         for(int i = 0; i < 8; i++) {
-            board[6][i] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+            board[6][i] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
         }
         // set white special
-        board[7][0] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
-        board[7][1] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        board[7][2] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        board[7][3] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
-        board[7][4] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
-        board[7][5] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        board[7][6] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        board[7][7] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        board[7][0] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        board[7][1] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
+        board[7][2] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
+        board[7][3] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
+        board[7][4] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+        board[7][5] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
+        board[7][6] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
+        board[7][7] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        reindex();
+    }
+
+    /**
+     * Builds a board from the piece placement field of a FEN string
+     *
+     * @param placement e.g. "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR", upper case is white
+     * @return the board
+     * @throws IllegalArgumentException if the placement is malformed
+     */
+    public static ChessBoard fromFen(String placement){
+        ChessBoard board = new ChessBoard();
+        if(board.parseFen(placement, 0) != placement.length()){
+            throw new IllegalArgumentException("Invalid FEN placement: " + placement);
+        }
+        return board;
+    }
+
+    /**
+     * Replaces the pieces with the placement field that starts at start in fen
+     *
+     * @return index just past the placement field
+     * @throws IllegalArgumentException if the placement is malformed
+     */
+    int parseFen(String fen, int start){
+        ChessPiece[][] pieces = new ChessPiece[8][8];
+        int i = 0;
+        int j = 0;
+        int index = start;
+        for(; index < fen.length() && fen.charAt(index) != ' '; index++){
+            char c = fen.charAt(index);
+            if(c == '/'){
+                if(j != 8 || ++i > 7){
+                    throw new IllegalArgumentException("Invalid FEN placement: " + fen);
+                }
+                j = 0;
+            }
+            else if(c >= '1' && c <= '8'){
+                j += c - '0';
+            }
+            else if(c < FEN_PIECES.length && FEN_PIECES[c] != 0 && j < 8){
+                pieces[i][j++] = ChessPiece.of(FEN_PIECES[c] - 1);
+            }
+            else{
+                throw new IllegalArgumentException("Invalid FEN placement: " + fen);
+            }
+            if(j > 8){
+                throw new IllegalArgumentException("Invalid FEN placement: " + fen);
+            }
+        }
+        if(i != 7 || j != 8){
+            throw new IllegalArgumentException("Invalid FEN placement: " + fen);
+        }
+        board = pieces;
+        reindex();
+        return index;
+    }
+
+    /**
+     * Piece placement field of a FEN string, rank 8 first, upper case is white
+     *
+     * @return e.g. "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR"
+     */
+    public String toFen(){
+        ensureIndexed();
+        StringBuilder fen = new StringBuilder(72);
+        appendFen(fen);
+        return fen.toString();
+    }
+
+    void appendFen(StringBuilder fen){
+        for(int i = 0; i < 8; i++){
+            int empty = 0;
+            for(int j = 0; j < 8; j++){
+                ChessPiece piece = board[i][j];
+                if(piece == null){
+                    empty++;
+                    continue;
+                }
+                if(empty > 0){
+                    fen.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                char c = FEN_LETTERS.charAt(piece.getPieceType().ordinal());
+                fen.append(piece.getTeamColor() == ChessGame.TeamColor.WHITE ? Character.toUpperCase(c) : c);
+            }
+            if(empty > 0){
+                fen.append((char) ('0' + empty));
+            }
+            if(i < 7){
+                fen.append('/');
+            }
+        }
+    }
+
+    /**
+     * Square numbering used by the bitboards: a1 = 0, h1 = 7, a8 = 56, h8 = 63
+     */
+    static int squareOf(int row, int col){
+        return ((row - 1) << 3) | (col - 1);
+    }
+
+    static ChessPosition positionOf(int square){
+        return ChessPosition.of((square >>> 3) + 1, (square & 7) + 1);
+    }
+
+    static int pieceIndex(ChessGame.TeamColor teamColor, PieceType type){
+        return teamColor.ordinal() * 6 + type.ordinal();
+    }
+
+    // The bitboards index every piece by its color and type
+    private static void requireComplete(ChessPiece piece){
+        if(piece != null && (piece.getTeamColor() == null || piece.getPieceType() == null)){
+            throw new IllegalArgumentException("Piece is missing its team color or type: " + piece.getTeamColor()
+                + " " + piece.getPieceType());
+        }
+    }
+
+    private void fillSquare(ChessPiece piece, int square){
+        if(piece != null){
+            zobristKey ^= Zobrist.PIECE_SQUARE[pieceIndex(piece.getTeamColor(), piece.getPieceType())][square];
+            pieceBitboards[pieceIndex(piece.getTeamColor(), piece.getPieceType())] |= 1L << square;
+            teamOccupancy[piece.getTeamColor().ordinal()] |= 1L << square;
+        }
+    }
+
+    private void clearSquare(ChessPiece piece, int square){
+        if(piece != null){
+            zobristKey ^= Zobrist.PIECE_SQUARE[pieceIndex(piece.getTeamColor(), piece.getPieceType())][square];
+            pieceBitboards[pieceIndex(piece.getTeamColor(), piece.getPieceType())] &= ~(1L << square);
+            teamOccupancy[piece.getTeamColor().ordinal()] &= ~(1L << square);
+        }
+    }
+
+    /**
+     * Rebuilds the bitboards if the piece array was replaced
+     * (setBoard, or Gson filling the field directly), and canonicalizes the pieces
+     */
+    private void ensureIndexed(){
+        if(indexedBoard != board){
+            reindex();
+        }
+    }
+
+    private void reindex(){
+        if(pieceBitboards == null){
+            pieceBitboards = new long[12];
+            teamOccupancy = new long[2];
+        }
+        // stays unindexed if a piece is rejected part way through
+        indexedBoard = null;
+        Arrays.fill(pieceBitboards, 0L);
+        Arrays.fill(teamOccupancy, 0L);
+        zobristKey = 0L;
+        for(int i = 0; i < 8; i++){
+            for(int j = 0; j < 8; j++){
+                ChessPiece piece = board[i][j];
+                requireComplete(piece);
+                if(piece != null){
+                    // Swap deserialized copies for the shared instances
+                    board[i][j] = ChessPiece.of(piece.getTeamColor(), piece.getPieceType());
+                    fillSquare(board[i][j], squareOf(arrayToRow(i), arrayToCol(j)));
+                }
+            }
+        }
+        indexedBoard = board;
+        touch();
     }
 
     private int rowToArray(int row){
@@ -184,12 +580,14 @@ public class ChessBoard {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(board, that.board);
+        ensureIndexed();
+        that.ensureIndexed();
+        return Arrays.equals(pieceBitboards, that.pieceBitboards);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(board);
+        return Long.hashCode(getZobristKey());
     }
 
     @Override
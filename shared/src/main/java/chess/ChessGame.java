@@ -1,6 +1,7 @@
 package chess;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 
 
@@ -13,8 +14,72 @@ import java.util.Collection;
  */
 public class ChessGame {
 
+    /**
+     * Buffer size that always fits every legal move of a position
+     */
+    public static final int MAX_MOVES = 256;
+
+    /**
+     * First byte of every game written by encode; JSON never starts with it
+     */
+    public static final byte ENCODING_VERSION = 1;
+    // Bytes before the piece nibbles in the encoded form
+    private static final int ENCODING_HEADER = 15;
+    private static final int MAX_ENCODED_CLOCK = 0xFFFF;
+
+    // Castling rights, as a bitmask of the flags below
+    static final int WHITE_KINGSIDE = 1;
+    static final int WHITE_QUEENSIDE = 2;
+    static final int BLACK_KINGSIDE = 4;
+    static final int BLACK_QUEENSIDE = 8;
+    static final int ALL_CASTLING = 15;
+    // FEN letter, king square and rook square of each castle, by flag bit
+    private static final String CASTLE_LETTERS = "KQkq";
+    private static final int[] CASTLE_KING_SQUARES = {4, 4, 60, 60};
+    private static final int[] CASTLE_ROOK_SQUARES = {7, 0, 63, 56};
+    // Rights left after a move to or from each square: moving a king or rook,
+    // or capturing a rook, gives up the castles that use it
+    private static final int[] CASTLING_MASK = new int[64];
+    // Squares between the king and rook of each castle, which must be empty
+    private static final long[] CASTLE_PATHS = new long[4];
+
+    static {
+        Arrays.fill(CASTLING_MASK, ALL_CASTLING);
+        for(int castle = 0; castle < 4; castle++){
+            CASTLING_MASK[CASTLE_KING_SQUARES[castle]] &= ~(1 << castle);
+            CASTLING_MASK[CASTLE_ROOK_SQUARES[castle]] &= ~(1 << castle);
+            int low = Math.min(CASTLE_KING_SQUARES[castle], CASTLE_ROOK_SQUARES[castle]);
+            int high = Math.max(CASTLE_KING_SQUARES[castle], CASTLE_ROOK_SQUARES[castle]);
+            for(int square = low + 1; square < high; square++){
+                CASTLE_PATHS[castle] |= 1L << square;
+            }
+        }
+    }
+
     private ChessBoard board;
     private TeamColor currentTeamColor;
+    private int castlingRights = ALL_CASTLING;
+    // Square a pawn just skipped with a double step, or -1
+    private int enPassantSquare = -1;
+    // Half moves since the last capture or pawn move, and the move number (starts at 1, counts up after black moves)
+    private int halfmoveClock;
+    private int fullmoveNumber = 1;
+
+    // Castling rights, en passant square and halfmove clock saved by the packed makeMove, popped by unmakeMove
+    private transient long[] stateStack = new long[16];
+    private transient int stateDepth;
+
+    // Legal moves of each team, reused until the board, its position version,
+    // the castling rights or the en passant square change
+    private transient MoveCache[] moveCaches = new MoveCache[2];
+
+    private static class MoveCache {
+        private ChessBoard board;
+        private long version;
+        private int state;
+        private final int[] moves = new int[MAX_MOVES];
+        private int count;
+    }
 
     public ChessGame() {
         board = new ChessBoard();
@@ -22,6 +87,12 @@ public class ChessGame {
         currentTeamColor = TeamColor.WHITE;
     }
 
+    // For parsers that build the board themselves, skipping the starting position
+    private ChessGame(ChessBoard board) {
+        this.board = board;
+        currentTeamColor = TeamColor.WHITE;
+    }
+
     /**
      * @return Which team's turn it is
      */
@@ -38,7 +109,20 @@ public class ChessGame {
         currentTeamColor = team;
     }
 
-    
+    /**
+     * Zobrist key of the whole position: piece placement, side to move, castling
+     * rights and (while a capture is possible) the en passant file
+     *
+     * @return 64-bit position key
+     */
+    public long getPositionKey() {
+        long key = board.getZobristKey() ^ Zobrist.CASTLING[getCastlingRights()];
+        if(enPassantCaptures() != 0){
+            key ^= Zobrist.EN_PASSANT_FILE[enPassantSquare & 7];
+        }
+        return (currentTeamColor == TeamColor.BLACK) ? key ^ Zobrist.BLACK_TO_MOVE : key;
+    }
+
     public void changeTeamTurn(){
         currentTeamColor = (currentTeamColor == TeamColor.BLACK) ? TeamColor.WHITE : TeamColor.BLACK;
     }
@@ -51,6 +135,16 @@ public class ChessGame {
         BLACK
     }
 
+    /**
+     * Enum identifying the state of the game for the team whose turn it is
+     */
+    public enum GameStatus {
+        ONGOING,
+        CHECK,
+        CHECKMATE,
+        STALEMATE
+    }
+
     /**
      * Gets a valid moves for a piece at the given location
      *
@@ -60,96 +154,189 @@ public class ChessGame {
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
         ChessPiece piece = board.getPiece(startPosition);
-        TeamColor teamColor = piece.getTeamColor();
-        Collection<ChessMove> possibleMoves = piece.pieceMoves(board, startPosition);
+        if(piece == null){
+            return null;
+        }
+        MoveCache cache = movesFor(piece.getTeamColor());
+        int from = ChessBoard.squareOf(startPosition.getRow(), startPosition.getColumn());
         ArrayList<ChessMove> legalMoves = new ArrayList<>();
-        for(ChessMove possibleMove : possibleMoves){
-            if(legal(possibleMove, teamColor)){
-                legalMoves.add(possibleMove);
+        for(int i = 0; i < cache.count; i++){
+            if(ChessMove.startSquare(cache.moves[i]) == from){
+                legalMoves.add(ChessMove.fromPacked(cache.moves[i]));
             }
         }
         return legalMoves;
     }
+
+    /**
+     * Fills a buffer with every legal move for the team whose turn it is,
+     * without allocating. Moves are packed ints, see ChessMove.fromPacked
+     *
+     * @param moves buffer to fill, at least MAX_MOVES long
+     * @return number of moves written
+     */
+    public int legalMoves(int[] moves) {
+        MoveCache cache = movesFor(currentTeamColor);
+        System.arraycopy(cache.moves, 0, moves, 0, cache.count);
+        return cache.count;
+    }
+
     /**
      * 
-     * @param move chess move to check validity
-     * @return boolean if move is legal (doesn't cause danger of check)
+     * @param teamColor team to get moves for
+     * @return the team's legal moves, regenerated only if the position changed
      */
-    private boolean legal(ChessMove move, TeamColor teamColor){
-        // Set copied board to the end result of the move
-        // Check if any piece on the other team has the king as a move
-        ChessPosition kingPosition = board.getKingLocation(teamColor);
-        ChessPiece[][] cBoard = copyBoard();
-        ChessPosition startPosition = move.getStartPosition();
-        ChessPosition endPosition = move.getEndPosition();
-        // Make move
-        fakeMove(cBoard, startPosition, endPosition);
-        // Move king position as well
-        if(move.getStartPosition().equals(kingPosition)){
-            kingPosition = move.getEndPosition();
+    private MoveCache movesFor(TeamColor teamColor) {
+        if(moveCaches == null){
+            moveCaches = new MoveCache[2];
+        }
+        MoveCache cache = moveCaches[teamColor.ordinal()];
+        if(cache == null){
+            cache = new MoveCache();
+            moveCaches[teamColor.ordinal()] = cache;
+        }
+        long version = board.getVersion();
+        // En passant only matters to the team to move
+        int enPassant = (teamColor == currentTeamColor) ? enPassantSquare : -1;
+        int state = castlingRights | ((enPassant + 1) << 4);
+        if(cache.board != board || cache.version != version || cache.state != state){
+            // Generating makes and unmakes moves, which leaves the version where it started
+            int count = 0;
+            long pieces = board.getOccupancy(teamColor);
+            while(pieces != 0){
+                count = legalMoves(Long.numberOfTrailingZeros(pieces), cache.moves, count);
+                pieces &= pieces - 1;
+            }
+            count = castlingMoves(teamColor, cache.moves, count);
+            if(enPassant >= 0){
+                count = enPassantMoves(cache.moves, count);
+            }
+            cache.count = count;
+            cache.board = board;
+            cache.version = version;
+            cache.state = state;
         }
-        ChessBoard copyBoard = new ChessBoard();
-        copyBoard.setBoard(cBoard);
-        // Find other pieces
-        return teamTakeKing(copyBoard, cBoard, teamColor, kingPosition);
+        return cache;
     }
 
     /**
-     * 
-     * @param copyBoard
-     * @param cBoard
-     * @param teamColor
-     * @param kingPosition
-     * @return If the other team can take the king
+     * Appends the legal moves of the piece on one square as packed ints
+     *
+     * @return new number of moves in the buffer
      */
-    private boolean teamTakeKing(ChessBoard copyBoard, ChessPiece[][] cBoard, TeamColor teamColor, ChessPosition kingPosition){
-        for(int i = 0; i < 8; i++){
-            for(int j = 0; j < 8; j++){
-                // Check for other pieces
-                if(cBoard[i][j] != null && cBoard[i][j].getTeamColor() != teamColor){
-                    // Check if other piece could take king
-                    if(!containsKing(copyBoard, cBoard, kingPosition, i, j)){
-                        return false;
-                    }
-                }
+    int legalMoves(int from, int[] moves, int count) {
+        ChessPiece piece = board.getPiece(from);
+        TeamColor teamColor = piece.getTeamColor();
+        TeamColor other = (teamColor == TeamColor.BLACK) ? TeamColor.WHITE : TeamColor.BLACK;
+        boolean isPawn = piece.getPieceType() == ChessPiece.PieceType.PAWN;
+        long targets = ChessPiece.moveTargets(board, piece.getPieceType(), teamColor, from);
+        long enemies = board.getOccupancy(other);
+        while(targets != 0){
+            int to = Long.numberOfTrailingZeros(targets);
+            int flags = ((enemies & (1L << to)) != 0) ? ChessMove.CAPTURE_FLAG : 0;
+            if(isPawn && ChessPiece.isPromotionSquare(to)){
+                count = addIfLegal(ChessMove.pack(from, to, ChessPiece.PieceType.QUEEN, flags), teamColor, moves, count);
+                count = addIfLegal(ChessMove.pack(from, to, ChessPiece.PieceType.ROOK, flags), teamColor, moves, count);
+                count = addIfLegal(ChessMove.pack(from, to, ChessPiece.PieceType.BISHOP, flags), teamColor, moves, count);
+                count = addIfLegal(ChessMove.pack(from, to, ChessPiece.PieceType.KNIGHT, flags), teamColor, moves, count);
+            }
+            else{
+                count = addIfLegal(ChessMove.pack(from, to, null, flags), teamColor, moves, count);
             }
+            targets &= targets - 1;
         }
-        return true;
+        return count;
     }
 
-    private boolean containsKing(ChessBoard copyBoard, ChessPiece[][] cBoard, ChessPosition kingPosition, int i, int j){
-        // Check if other piece could take king
-        ChessPiece otherPiece = cBoard[i][j];
-        for(ChessMove otherMove : otherPiece.pieceMoves(copyBoard, new ChessPosition(arrayToRow(i), arrayToCol(j)))){
-            if(otherMove.getEndPosition().equals(kingPosition)){
-                return false;
+    /**
+     * Appends the team's legal castles: rights still held, nothing between the
+     * king and rook, and the king not in check or passing through or landing on
+     * an attacked square
+     *
+     * @return new number of moves in the buffer
+     */
+    private int castlingMoves(TeamColor teamColor, int[] moves, int count) {
+        int rights = getCastlingRights();
+        TeamColor other = (teamColor == TeamColor.BLACK) ? TeamColor.WHITE : TeamColor.BLACK;
+        int first = (teamColor == TeamColor.WHITE) ? 0 : 2;
+        for(int castle = first; castle < first + 2; castle++){
+            int king = CASTLE_KING_SQUARES[castle];
+            int to = (CASTLE_ROOK_SQUARES[castle] > king) ? king + 2 : king - 2;
+            if((rights & (1 << castle)) != 0 && (board.getOccupancy() & CASTLE_PATHS[castle]) == 0
+                    && !board.isSquareAttacked(king, other) && !board.isSquareAttacked((king + to) >>> 1, other)){
+                count = addIfLegal(ChessMove.pack(king, to, null, ChessMove.CASTLE_FLAG), teamColor, moves, count);
             }
         }
-        return true;
+        return count;
     }
 
+    /**
+     * Appends the legal en passant captures of the team to move
+     *
+     * @return new number of moves in the buffer
+     */
+    private int enPassantMoves(int[] moves, int count) {
+        long pawns = enPassantCaptures();
+        while(pawns != 0){
+            int move = ChessMove.pack(Long.numberOfTrailingZeros(pawns), enPassantSquare, null,
+                    ChessMove.CAPTURE_FLAG | ChessMove.EN_PASSANT_FLAG);
+            count = addIfLegal(move, currentTeamColor, moves, count);
+            pawns &= pawns - 1;
+        }
+        return count;
+    }
 
-    private ChessPiece[][] copyBoard(){
-        if(board == null){
-            return null;
+    /**
+     * @return pawns of the team to move that can capture en passant, ignoring pins
+     */
+    private long enPassantCaptures() {
+        if(enPassantSquare < 0){
+            return 0;
         }
-        ChessPiece[][] cBoard = new ChessPiece[8][8];
-        for(int i = 0; i < 8; i++){
-            for(int j = 0; j < 8; j++){
-                ChessPiece piece = board.getPiecebyIndex(i, j);
-                if(piece != null){
-                    cBoard[i][j] = new ChessPiece(piece.getTeamColor(), piece.getPieceType());
-                }
-            }
+        TeamColor other = (currentTeamColor == TeamColor.BLACK) ? TeamColor.WHITE : TeamColor.BLACK;
+        // The pawn that double stepped sits one rank past the skipped square, from the mover's side
+        int pawnSquare = (currentTeamColor == TeamColor.WHITE) ? enPassantSquare - 8 : enPassantSquare + 8;
+        int rank = (currentTeamColor == TeamColor.WHITE) ? 5 : 2;
+        if((enPassantSquare >>> 3) != rank || (board.getPieceBitboard(other, ChessPiece.PieceType.PAWN) & (1L << pawnSquare)) == 0){
+            return 0;
         }
-        
-        return cBoard;
+        return board.getPieceBitboard(currentTeamColor, ChessPiece.PieceType.PAWN)
+                & ChessPiece.PAWN_ATTACKS[other.ordinal()][enPassantSquare];
     }
 
-    private void fakeMove(ChessPiece[][] cBoard, ChessPosition startPosition, ChessPosition endPosition){
-        cBoard[rowToArray(endPosition.getRow())][colToArray(endPosition.getColumn())] = 
-            cBoard[rowToArray(startPosition.getRow())][colToArray(startPosition.getColumn())];
-        cBoard[rowToArray(startPosition.getRow())][colToArray(startPosition.getColumn())] = null;
+    private int addIfLegal(int move, TeamColor teamColor, int[] moves, int count) {
+        board.makeMove(move);
+        long king = board.getPieceBitboard(teamColor, ChessPiece.PieceType.KING);
+        TeamColor other = (teamColor == TeamColor.BLACK) ? TeamColor.WHITE : TeamColor.BLACK;
+        boolean safe = king == 0 || !board.isSquareAttacked(Long.numberOfTrailingZeros(king), other);
+        board.unmakeMove(move);
+        if(safe){
+            moves[count++] = move;
+        }
+        return count;
+    }
+
+    /**
+     * 
+     * @param teamColor
+     * @param kingPosition
+     * @return If the other team can't take the king
+     */
+    private boolean teamTakeKing(TeamColor teamColor, ChessPosition kingPosition){
+        if(kingPosition == null){
+            return true;
+        }
+        TeamColor other = (teamColor == TeamColor.BLACK) ? TeamColor.WHITE : TeamColor.BLACK;
+        return !board.isSquareAttacked(kingPosition, other);
+    }
+
+    /**
+     * 
+     * @param teamColor team to look for moves for
+     * @return if any piece on the team has a legal move
+     */
+    private boolean hasLegalMove(TeamColor teamColor){
+        return movesFor(teamColor).count > 0;
     }
 
     /**
@@ -167,17 +354,66 @@ public class ChessGame {
         if(piece.getTeamColor() != currentTeamColor){
             throw new InvalidMoveException("It is not your turn");
         }
-        Collection<ChessMove> legalMoves = validMoves(move.getStartPosition());
-        if(legalMoves.isEmpty() || !legalMoves.contains(move)){
-            throw new InvalidMoveException("No valid moves.");
-        }
-        for(ChessMove legalMove : legalMoves){
-            if(legalMove.equals(move)){
-                board.movePiece(move);
-                changeTeamTurn();
+        int packed = ChessMove.withoutFlags(move.toPacked());
+        MoveCache cache = movesFor(currentTeamColor);
+        for(int i = 0; i < cache.count; i++){
+            int legalMove = cache.moves[i];
+            if(ChessMove.withoutFlags(legalMove) == packed){
+                boolean pawn = piece.getPieceType() == ChessPiece.PieceType.PAWN;
+                board.playMove(legalMove);
+                advance(legalMove, pawn);
                 return;
             }
         }
+        throw new InvalidMoveException("No valid moves.");
+    }
+
+    /**
+     * Updates castling rights, the en passant square, the clocks and the turn
+     * after a move has been made on the board
+     *
+     * @param move the packed move just made
+     * @param pawn whether a pawn made it
+     */
+    private void advance(int move, boolean pawn) {
+        int from = ChessMove.startSquare(move);
+        int to = ChessMove.endSquare(move);
+        castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        enPassantSquare = (pawn && Math.abs(to - from) == 16) ? (from + to) >>> 1 : -1;
+        halfmoveClock = (pawn || (move & ChessMove.CAPTURE_FLAG) != 0) ? 0 : halfmoveClock + 1;
+        if(currentTeamColor == TeamColor.BLACK){
+            fullmoveNumber++;
+        }
+        changeTeamTurn();
+    }
+
+    /**
+     * Makes a packed move from legalMoves in place and passes the turn, without
+     * validating it; must be taken back with unmakeMove(int)
+     */
+    void makeMove(int move) {
+        if(stateStack == null || stateDepth == stateStack.length){
+            stateStack = Arrays.copyOf(stateStack == null ? new long[0] : stateStack, Math.max(16, stateDepth * 2));
+        }
+        stateStack[stateDepth++] = castlingRights | ((long) (enPassantSquare + 1) << 4) | ((long) halfmoveClock << 11);
+        boolean pawn = board.getPiece(ChessMove.startSquare(move)).getPieceType() == ChessPiece.PieceType.PAWN;
+        board.makeMove(move);
+        advance(move, pawn);
+    }
+
+    /**
+     * Takes back the last packed move made with makeMove(int)
+     */
+    void unmakeMove(int move) {
+        changeTeamTurn();
+        if(currentTeamColor == TeamColor.BLACK){
+            fullmoveNumber--;
+        }
+        board.unmakeMove(move);
+        long state = stateStack[--stateDepth];
+        castlingRights = (int) (state & 0xF);
+        enPassantSquare = (int) ((state >>> 4) & 0x7F) - 1;
+        halfmoveClock = (int) (state >>> 11);
     }
 
     /**
@@ -187,18 +423,8 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        // Go through the team color
-        // If any valid move can take the king, check
-        ArrayList<ChessPosition> oppoTeamPositions = board.getTeamPositions(teamColor == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE);
-        ChessPosition kingPosition = board.getKingLocation(teamColor);
-        for(ChessPosition oppoPiece : oppoTeamPositions){
-            for(ChessMove validOppoPieceMove : validMoves(oppoPiece)){
-                if(validOppoPieceMove.getEndPosition().equals(kingPosition)){
-                    return true;
-                }
-            }
-        }
-        return false;
+        // In check if any opposing piece attacks the king's square
+        return !teamTakeKing(teamColor, board.getKingLocation(teamColor));
     }
 
     /**
@@ -208,37 +434,7 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        boolean checkmate = false;
-        // Check if any team piece can capture a piece to remove check
-        if(isInCheck(teamColor)){
-            ArrayList<ChessPosition> teamPositions = board.getTeamPositions(teamColor);
-            for(ChessPosition pos : teamPositions){
-                // Check if a valid move can remove the piece causing check
-                // Test if any valid move can remove check
-                for(ChessMove move : validMoves(pos)){
-                    // fake move
-                    // Check if oppo team's move hold king
-                    ChessPosition kingPosition = board.getKingLocation(teamColor);
-                    ChessPiece[][] cBoard = copyBoard();
-                    ChessPosition startPosition = move.getStartPosition();
-                    ChessPosition endPosition = move.getEndPosition();
-                    // Fake move
-                    fakeMove(cBoard, startPosition, endPosition);
-                    if(move.getStartPosition().equals(kingPosition)){
-                        kingPosition = move.getEndPosition();
-                    }
-                    ChessBoard copyBoard = new ChessBoard();
-                    copyBoard.setBoard(cBoard);
-                    // Check if other team holds king
-                    TeamColor other = (teamColor == TeamColor.BLACK) ? TeamColor.WHITE : TeamColor.BLACK;
-                    if(teamTakeKing(copyBoard, cBoard, other, kingPosition)){
-                        return false;
-                    }
-                }
-                checkmate = true;
-            }
-        }
-        return checkmate;
+        return isInCheck(teamColor) && !hasLegalMove(teamColor);
     }
 
     /**
@@ -249,16 +445,21 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        if(isInCheck(teamColor)){
-            return false;
-        }
-        ArrayList<ChessPosition> teamPositions = board.getTeamPositions(teamColor);
-        for(ChessPosition piece : teamPositions){
-            if(!validMoves(piece).isEmpty()){
-                return false;
-            }   
+        return !isInCheck(teamColor) && !hasLegalMove(teamColor);
+    }
+
+    /**
+     * Works out check, checkmate and stalemate for the team whose turn it is
+     * with a single attack query and a single legal move generation
+     *
+     * @return status of the team to move
+     */
+    public GameStatus evaluateStatus() {
+        boolean inCheck = isInCheck(currentTeamColor);
+        if(!hasLegalMove(currentTeamColor)){
+            return inCheck ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
         }
-        return true;
+        return inCheck ? GameStatus.CHECK : GameStatus.ONGOING;
     }
 
     /**
@@ -268,6 +469,237 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        // A new position: castles are allowed wherever the king and rook are home
+        castlingRights = ALL_CASTLING;
+        enPassantSquare = -1;
+    }
+
+    /**
+     * Builds a game from a FEN string. The clock fields may be left off, in which
+     * case they default to 0 and 1
+     *
+     * @param fen e.g. "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1"
+     * @return the game
+     * @throws IllegalArgumentException if the FEN is malformed
+     */
+    public static ChessGame fromFen(String fen) {
+        ChessBoard board = new ChessBoard();
+        int index = board.parseFen(fen, 0);
+        ChessGame game = new ChessGame(board);
+
+        index = expectSpace(fen, index);
+        char side = index < fen.length() ? fen.charAt(index++) : ' ';
+        if(side != 'w' && side != 'b'){
+            throw new IllegalArgumentException("Invalid FEN side to move: " + fen);
+        }
+        game.currentTeamColor = (side == 'w') ? TeamColor.WHITE : TeamColor.BLACK;
+
+        index = expectSpace(fen, index);
+        game.castlingRights = 0;
+        if(index < fen.length() && fen.charAt(index) == '-'){
+            index++;
+        }
+        else{
+            for(; index < fen.length() && fen.charAt(index) != ' '; index++){
+                int castle = CASTLE_LETTERS.indexOf(fen.charAt(index));
+                if(castle < 0){
+                    throw new IllegalArgumentException("Invalid FEN castling rights: " + fen);
+                }
+                game.castlingRights |= 1 << castle;
+            }
+        }
+
+        index = expectSpace(fen, index);
+        if(index < fen.length() && fen.charAt(index) == '-'){
+            index++;
+        }
+        else if(index + 1 < fen.length() && fen.charAt(index) >= 'a' && fen.charAt(index) <= 'h'
+                && (fen.charAt(index + 1) == '3' || fen.charAt(index + 1) == '6')){
+            game.enPassantSquare = ChessBoard.squareOf(fen.charAt(index + 1) - '0', fen.charAt(index) - 'a' + 1);
+            index += 2;
+        }
+        else{
+            throw new IllegalArgumentException("Invalid FEN en passant square: " + fen);
+        }
+
+        if(index < fen.length()){
+            index = expectSpace(fen, index);
+            int end = fen.indexOf(' ', index);
+            if(end < 0){
+                throw new IllegalArgumentException("Invalid FEN clocks: " + fen);
+            }
+            game.halfmoveClock = parseClock(fen, index, end);
+            game.fullmoveNumber = parseClock(fen, end + 1, fen.length());
+        }
+        return game;
+    }
+
+    private static int expectSpace(String fen, int index) {
+        if(index >= fen.length() || fen.charAt(index) != ' '){
+            throw new IllegalArgumentException("Invalid FEN: " + fen);
+        }
+        return index + 1;
+    }
+
+    private static int parseClock(String fen, int start, int end) {
+        try{
+            return Integer.parseInt(fen, start, end, 10);
+        }
+        catch(NumberFormatException e){
+            throw new IllegalArgumentException("Invalid FEN clocks: " + fen, e);
+        }
+    }
+
+    /**
+     * Writes the game as a FEN string. Castling rights are only listed while the
+     * king and rook involved are still on their starting squares
+     *
+     * @return e.g. "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(90);
+        board.appendFen(fen);
+        fen.append(currentTeamColor == TeamColor.WHITE ? " w " : " b ");
+        int rights = getCastlingRights();
+        if(rights == 0){
+            fen.append('-');
+        }
+        for(int castle = 0; castle < 4; castle++){
+            if((rights & (1 << castle)) != 0){
+                fen.append(CASTLE_LETTERS.charAt(castle));
+            }
+        }
+        fen.append(' ');
+        if(enPassantSquare < 0){
+            fen.append('-');
+        }
+        else{
+            fen.append((char) ('a' + (enPassantSquare & 7))).append((char) ('1' + (enPassantSquare >>> 3)));
+        }
+        fen.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber);
+        return fen.toString();
+    }
+
+    /**
+     * Writes the game in a compact binary form, at most 31 bytes for a
+     * regular game:
+     * <pre>
+     * byte   format version (ENCODING_VERSION)
+     * byte   bit 0 black to move, bits 1-4 castling rights
+     * byte   en passant square, 0xFF for none
+     * short  halfmove clock, saturated at 65535
+     * short  fullmove number, saturated at 65535
+     * long   occupancy bitboard (bit 0 is a1)
+     * nibbles ChessBoard.pieceIndex of each occupied square, lowest square
+     *        first, high nibble first, padded with 0 to a whole byte
+     * </pre>
+     *
+     * @return encoded game, readable by decode
+     */
+    public byte[] encode() {
+        long occupied = board.getOccupancy();
+        int pieces = Long.bitCount(occupied);
+        byte[] bytes = new byte[ENCODING_HEADER + (pieces + 1) / 2];
+        bytes[0] = ENCODING_VERSION;
+        bytes[1] = (byte) ((currentTeamColor == TeamColor.BLACK ? 1 : 0) | (castlingRights << 1));
+        bytes[2] = (byte) enPassantSquare;
+        // the clocks get two bytes each; cap them rather than let them wrap
+        int halfmoves = Math.min(halfmoveClock, MAX_ENCODED_CLOCK);
+        int fullmoves = Math.min(fullmoveNumber, MAX_ENCODED_CLOCK);
+        bytes[3] = (byte) (halfmoves >>> 8);
+        bytes[4] = (byte) halfmoves;
+        bytes[5] = (byte) (fullmoves >>> 8);
+        bytes[6] = (byte) fullmoves;
+        for(int i = 0; i < 8; i++){
+            bytes[7 + i] = (byte) (occupied >>> (56 - 8 * i));
+        }
+        for(int n = 0; occupied != 0; n++){
+            int square = Long.numberOfTrailingZeros(occupied);
+            ChessPiece piece = board.getPiece(square);
+            int index = ChessBoard.pieceIndex(piece.getTeamColor(), piece.getPieceType());
+            bytes[ENCODING_HEADER + n / 2] |= (byte) ((n % 2 == 0) ? index << 4 : index);
+            occupied &= occupied - 1;
+        }
+        return bytes;
+    }
+
+    /**
+     * Reads a game written by encode
+     *
+     * @param bytes encoded game
+     * @return the game
+     * @throws IllegalArgumentException if the bytes aren't an encoded game
+     */
+    public static ChessGame decode(byte[] bytes) {
+        if(bytes.length < ENCODING_HEADER || bytes[0] != ENCODING_VERSION){
+            throw new IllegalArgumentException("Not an encoded chess game");
+        }
+        long occupied = 0;
+        for(int i = 0; i < 8; i++){
+            occupied = (occupied << 8) | (bytes[7 + i] & 0xFF);
+        }
+        if(bytes.length != ENCODING_HEADER + (Long.bitCount(occupied) + 1) / 2){
+            throw new IllegalArgumentException("Not an encoded chess game");
+        }
+        ChessPiece[][] pieces = new ChessPiece[8][8];
+        for(int n = 0; occupied != 0; n++){
+            int square = Long.numberOfTrailingZeros(occupied);
+            int packed = bytes[ENCODING_HEADER + n / 2];
+            int index = ((n % 2 == 0) ? packed >>> 4 : packed) & 0xF;
+            if(index >= 12){
+                throw new IllegalArgumentException("Not an encoded chess game");
+            }
+            pieces[7 - (square >>> 3)][square & 7] = ChessPiece.of(index);
+            occupied &= occupied - 1;
+        }
+        ChessBoard board = new ChessBoard();
+        board.setBoard(pieces);
+        ChessGame game = new ChessGame(board);
+        game.currentTeamColor = ((bytes[1] & 1) != 0) ? TeamColor.BLACK : TeamColor.WHITE;
+        game.castlingRights = (bytes[1] >>> 1) & ALL_CASTLING;
+        game.enPassantSquare = (bytes[2] == (byte) 0xFF) ? -1 : bytes[2] & 0x3F;
+        game.halfmoveClock = ((bytes[3] & 0xFF) << 8) | (bytes[4] & 0xFF);
+        game.fullmoveNumber = ((bytes[5] & 0xFF) << 8) | (bytes[6] & 0xFF);
+        return game;
+    }
+
+    /**
+     * Castling rights still held, limited to castles whose king and rook are
+     * on their starting squares
+     *
+     * @return bitmask of WHITE_KINGSIDE, WHITE_QUEENSIDE, BLACK_KINGSIDE and BLACK_QUEENSIDE
+     */
+    int getCastlingRights() {
+        int rights = castlingRights;
+        for(int castle = 0; castle < 4; castle++){
+            TeamColor color = (castle < 2) ? TeamColor.WHITE : TeamColor.BLACK;
+            if((board.getPieceBitboard(color, ChessPiece.PieceType.KING) & (1L << CASTLE_KING_SQUARES[castle])) == 0
+                    || (board.getPieceBitboard(color, ChessPiece.PieceType.ROOK) & (1L << CASTLE_ROOK_SQUARES[castle])) == 0){
+                rights &= ~(1 << castle);
+            }
+        }
+        return rights;
+    }
+
+    /**
+     * @return the square a pawn just skipped with a double step, or null
+     */
+    public ChessPosition getEnPassantTarget() {
+        return (enPassantSquare < 0) ? null : ChessBoard.positionOf(enPassantSquare);
+    }
+
+    /**
+     * @return half moves since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return the current move number, starting at 1 and counting up after black moves
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
     }
 
     /**
@@ -287,20 +719,4 @@ public class ChessGame {
         str += currentTeamColor + "\n";
         return str;
     }
-
-    private int rowToArray(int row){
-        return 8-row;
-    }
-
-    private int arrayToRow(int i){
-        return 8-i;
-    }
-
-    private int colToArray(int col){
-        return col-1;
-    }
-
-    private int arrayToCol(int j){
-        return j+1;
-    }
 }
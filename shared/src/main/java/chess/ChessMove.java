@@ -14,6 +14,15 @@ public class ChessMove {
     private final ChessPosition endPosition;
     private final ChessPiece.PieceType promotionPiece;
 
+    // Packed int layout (see ChessGame.legalMoves):
+    // bits 0-5 start square, bits 6-11 end square (a1 = 0, h8 = 63),
+    // bits 12-14 promotion piece (PieceType ordinal + 1, 0 for none), bits 15+ flags
+    public static final int CAPTURE_FLAG = 1 << 15;
+    // King move of a castle; the rook moves with it
+    public static final int CASTLE_FLAG = 1 << 16;
+    // Pawn capture of a pawn that just double stepped past the end square
+    public static final int EN_PASSANT_FLAG = 1 << 17;
+
     public ChessMove(ChessPosition startPosition, ChessPosition endPosition,
                      ChessPiece.PieceType promotionPiece) {
         this.startPosition = startPosition;
@@ -52,6 +61,49 @@ public class ChessMove {
         return promotionPiece;
     }
 
+    /**
+     * @return this move as a packed int (no flags set)
+     */
+    public int toPacked() {
+        return pack(ChessBoard.squareOf(startPosition.getRow(), startPosition.getColumn()),
+                ChessBoard.squareOf(endPosition.getRow(), endPosition.getColumn()),
+                promotionPiece, 0);
+    }
+
+    /**
+     * @param move packed move from ChessGame.legalMoves
+     * @return the equivalent ChessMove
+     */
+    public static ChessMove fromPacked(int move) {
+        return new ChessMove(ChessBoard.positionOf(startSquare(move)), ChessBoard.positionOf(endSquare(move)),
+                promotionPiece(move));
+    }
+
+    static int pack(int start, int end, ChessPiece.PieceType promotion, int flags) {
+        return start | (end << 6) | ((promotion == null ? 0 : promotion.ordinal() + 1) << 12) | flags;
+    }
+
+    /**
+     * @return the start, end and promotion of a packed move, without its flags,
+     * for comparing against toPacked
+     */
+    static int withoutFlags(int move) {
+        return move & (CAPTURE_FLAG - 1);
+    }
+
+    static int startSquare(int move) {
+        return move & 0x3F;
+    }
+
+    static int endSquare(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    static ChessPiece.PieceType promotionPiece(int move) {
+        int promotion = (move >>> 12) & 0x7;
+        return promotion == 0 ? null : ChessPiece.PieceType.values()[promotion - 1];
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) {
@@ -65,7 +117,9 @@ public class ChessMove {
 
     @Override
     public int hashCode() {
-        return Objects.hash(startPosition, endPosition, promotionPiece);
+        int result = Objects.hashCode(startPosition);
+        result = 31 * result + Objects.hashCode(endPosition);
+        return 31 * result + (promotionPiece == null ? 0 : promotionPiece.ordinal() + 1);
     }
 
     @Override
@@ -2,9 +2,6 @@ package chess;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Objects;
-import java.util.function.Predicate;
 
 
 
@@ -18,23 +15,202 @@ public class ChessPiece {
 
     private final ChessGame.TeamColor pieceColor;
     private final ChessPiece.PieceType type;
-    
-    // Predicates to help shorten code
-    // UL -> Up and Left check
-    // DR -> Down and Right check
-    private final static Predicate<Integer> UL = x -> (x > 0);
-    private final static Predicate<Integer> DR = x -> (x < 7);
-    private final static Predicate<Integer> NOP = x -> (x != null);
-    private final static Predicate<Integer> UL_MOVE = x -> (x >= 0);
-    private final static Predicate<Integer> DR_MOVE = x -> (x < 8);
-    private final static Predicate<Integer> UL_2 = x -> (x > 1); 
-    private final static Predicate<Integer> DR_2 = x -> (x < 6);
+
+    // Attack tables indexed by square (a1 = 0, h8 = 63), built once at class load
+    static final long[] KNIGHT_ATTACKS = new long[64];
+    static final long[] KING_ATTACKS = new long[64];
+    // PAWN_ATTACKS[color][square] -> squares a pawn of that color on that square attacks
+    static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    static {
+        int[][] knightSteps = {{2, 1}, {2, -1}, {-2, 1}, {-2, -1}, {1, 2}, {1, -2}, {-1, 2}, {-1, -2}};
+        int[][] kingSteps = {{1, 1}, {1, 0}, {1, -1}, {0, 1}, {0, -1}, {-1, 1}, {-1, 0}, {-1, -1}};
+        for(int square = 0; square < 64; square++){
+            KNIGHT_ATTACKS[square] = stepTargets(square, knightSteps);
+            KING_ATTACKS[square] = stepTargets(square, kingSteps);
+            PAWN_ATTACKS[ChessGame.TeamColor.WHITE.ordinal()][square] = stepTargets(square, new int[][]{{1, -1}, {1, 1}});
+            PAWN_ATTACKS[ChessGame.TeamColor.BLACK.ordinal()][square] = stepTargets(square, new int[][]{{-1, -1}, {-1, 1}});
+        }
+    }
+
+    // Magic bitboard tables for the sliding pieces
+    // attacks = TABLE[square][((occupied & MASK[square]) * MAGIC[square]) >>> SHIFT[square]]
+    private static final int[][] ROOK_STEPS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_STEPS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+    private static final long[] ROOK_MASKS = new long[64];
+    // Found with a random search over sparse candidates (fixed seed), by square a1..h8
+    private static final long[] ROOK_MAGICS = {
+        0x0080008020400010L, 0x8040002000100048L, 0x0880082004801000L, 0x0880080004811000L,
+        0x0200209004484200L, 0x1480040080090600L, 0x45000A0001940100L, 0x0100003286034100L,
+        0x0821802080014000L, 0x0200804000200082L, 0x0201001020010040L, 0x0143002100500218L,
+        0x4045000488001102L, 0x0022001009020004L, 0x2203000A00070004L, 0x0101000081000042L,
+        0x0000808000400030L, 0x0100810020400100L, 0x0000828020001000L, 0x0002020010400820L,
+        0x005C008008000680L, 0x1221818002000400L, 0x00020400A8011022L, 0x3841020004208041L,
+        0x0040802280004005L, 0x0410400080201084L, 0x8840410100102000L, 0x408100210010000AL,
+        0x1000080080800400L, 0x8002000200100804L, 0x0C01000100040200L, 0x0014205200041081L,
+        0x40028040058001A5L, 0x1140100020A00800L, 0x0001802006801006L, 0x8480100082800801L,
+        0x0848002004040040L, 0x0403808400800200L, 0x4000104244000108L, 0x1900009102000054L,
+        0x100080400020800AL, 0x0150002010404000L, 0x0083014020050010L, 0x0250040008004040L,
+        0x0001000408010010L, 0x0802008004008002L, 0x88101008010400C2L, 0x1100005081020004L,
+        0x0022210C80004900L, 0xC001004A04228200L, 0x00A0200040110100L, 0xA000082100100100L,
+        0x6408008004000880L, 0x2100020080040080L, 0x0A08920841101400L, 0x0000011C0040A200L,
+        0x0A004100A01A8001L, 0x0001002010804001L, 0x02804119A0010013L, 0x0230201000080501L,
+        0x8042011028A02402L, 0xC80100040092080DL, 0x0000412810088604L, 0x2100092091040042L
+    };
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final long[][] ROOK_TABLE = new long[64][];
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final long[] BISHOP_MAGICS = {
+        0x0010040144040010L, 0x92A1041906002230L, 0x8144080883088004L, 0x20080A0020000000L,
+        0x0004030840400012L, 0x1000880442260020L, 0x00112C0A02406440L, 0x2204210100A02080L,
+        0x0100400484241040L, 0x0100108228204484L, 0x000090044C8C2000L, 0x220284040881001CL,
+        0x0100108820001000L, 0x2600010420041488L, 0x01000042021040A8L, 0x10011C8400880412L,
+        0x10400410040820A1L, 0x21040488A8080042L, 0x000508100C028410L, 0x080A081040104003L,
+        0x0014108202021502L, 0x4001101200422008L, 0x000040008C042040L, 0x2106204392841002L,
+        0x88020A8040080800L, 0x5404904084500088L, 0x0000300408004040L, 0x04840402A0401080L,
+        0x4001010020104004L, 0x8010108001004143L, 0x0004043040888400L, 0x0414820041051090L,
+        0x8204104050088300L, 0xB488024800020810L, 0x0000108201100C02L, 0x0000020080180080L,
+        0x0440080808008020L, 0x0010090202804042L, 0x0401484480820210L, 0x1804084200424500L,
+        0x2001012020001200L, 0x1001011030004301L, 0x800A020322000400L, 0x2C20004202200801L,
+        0x8204889100405402L, 0x2240880081200300L, 0x1008020420518406L, 0x020A020428280101L,
+        0x2440809008A00010L, 0x0081110090048868L, 0x0000004404040C04L, 0x1700240042120808L,
+        0x0000021012120080L, 0x0008040810210200L, 0x00682028C2084000L, 0x10E00C8408424020L,
+        0x2000820050040400L, 0x000100440A019040L, 0x4000016029083802L, 0x4000000000840408L,
+        0x0800038CB8608842L, 0x0400004011022888L, 0x2000206022060260L, 0x0E04082840408200L
+    };
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final long[][] BISHOP_TABLE = new long[64][];
+
+    static {
+        for(int square = 0; square < 64; square++){
+            ROOK_MASKS[square] = relevantOccupancy(square, ROOK_STEPS);
+            ROOK_SHIFTS[square] = 64 - Long.bitCount(ROOK_MASKS[square]);
+            ROOK_TABLE[square] = new long[1 << Long.bitCount(ROOK_MASKS[square])];
+            fillTable(square, ROOK_STEPS, ROOK_MASKS[square], ROOK_MAGICS[square], ROOK_TABLE[square]);
+            BISHOP_MASKS[square] = relevantOccupancy(square, BISHOP_STEPS);
+            BISHOP_SHIFTS[square] = 64 - Long.bitCount(BISHOP_MASKS[square]);
+            BISHOP_TABLE[square] = new long[1 << Long.bitCount(BISHOP_MASKS[square])];
+            fillTable(square, BISHOP_STEPS, BISHOP_MASKS[square], BISHOP_MAGICS[square], BISHOP_TABLE[square]);
+        }
+    }
+
+    /**
+     * @return squares a rook on square attacks given the occupied squares
+     */
+    static long rookAttacks(int square, long occupied){
+        return ROOK_TABLE[square][(int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+    }
+
+    /**
+     * @return squares a bishop on square attacks given the occupied squares
+     */
+    static long bishopAttacks(int square, long occupied){
+        return BISHOP_TABLE[square][(int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+    }
+
+    /**
+     * Squares along the rays whose occupancy can change the attack set
+     * (the last square of each ray never blocks anything)
+     */
+    private static long relevantOccupancy(int square, int[][] steps){
+        long mask = 0L;
+        for(int[] step : steps){
+            int r = (square >>> 3) + step[0];
+            int c = (square & 7) + step[1];
+            while(r + step[0] >= 0 && r + step[0] < 8 && c + step[1] >= 0 && c + step[1] < 8){
+                mask |= 1L << (r * 8 + c);
+                r += step[0];
+                c += step[1];
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Walks each ray square by square, only used while filling the tables
+     */
+    private static long slidingTargets(int square, int[][] steps, long occupied){
+        long targets = 0L;
+        for(int[] step : steps){
+            int r = (square >>> 3) + step[0];
+            int c = (square & 7) + step[1];
+            while(r >= 0 && r < 8 && c >= 0 && c < 8){
+                long bit = 1L << (r * 8 + c);
+                targets |= bit;
+                if((occupied & bit) != 0){
+                    break;
+                }
+                r += step[0];
+                c += step[1];
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Stores the attack set for every blocker subset of mask at its magic index
+     */
+    private static void fillTable(int square, int[][] steps, long mask, long magic, long[] table){
+        int shift = 64 - Long.bitCount(mask);
+        long subset = 0L;
+        do{
+            table[(int) ((subset * magic) >>> shift)] = slidingTargets(square, steps, subset);
+            // Next subset of mask (carry-rippler)
+            subset = (subset - mask) & mask;
+        }
+        while(subset != 0L);
+    }
+
+    private static long stepTargets(int square, int[][] steps){
+        int row = square >>> 3;
+        int col = square & 7;
+        long targets = 0L;
+        for(int[] step : steps){
+            int r = row + step[0];
+            int c = col + step[1];
+            if(r >= 0 && r < 8 && c >= 0 && c < 8){
+                targets |= 1L << (r * 8 + c);
+            }
+        }
+        return targets;
+    }
 
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
         this.pieceColor = pieceColor;
         this.type = type;
     }
 
+    // Shared instances for the 12 piece kinds, indexed by ChessBoard.pieceIndex
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        for(ChessGame.TeamColor teamColor : ChessGame.TeamColor.values()){
+            for(PieceType pieceType : PieceType.values()){
+                PIECES[ChessBoard.pieceIndex(teamColor, pieceType)] = new ChessPiece(teamColor, pieceType);
+            }
+        }
+    }
+
+    /**
+     * Returns the shared instance for a piece kind instead of allocating one
+     *
+     * @return cached piece (pieces are immutable)
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        if(pieceColor == null || type == null){
+            return new ChessPiece(pieceColor, type);
+        }
+        return PIECES[ChessBoard.pieceIndex(pieceColor, type)];
+    }
+
+    /**
+     * @param index ChessBoard.pieceIndex of the piece kind
+     * @return cached piece
+     */
+    static ChessPiece of(int index) {
+        return PIECES[index];
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) {
@@ -46,7 +222,7 @@ public class ChessPiece {
 
     @Override
     public int hashCode() {
-        return Objects.hash(pieceColor, type);
+        return 31 * (pieceColor == null ? 0 : pieceColor.ordinal() + 1) + (type == null ? 0 : type.ordinal() + 1);
     }
 
     @Override
@@ -81,21 +257,6 @@ public class ChessPiece {
         PAWN
     }
 
-    /**
-     * 
-     * Various enums used for code refactoring
-     */
-    private enum Directions{
-        UP,
-        DOWN,
-        LEFT,
-        RIGHT,
-        UP_LEFT,
-        UP_RIGHT,
-        DOWN_LEFT,
-        DOWN_RIGHT
-    }
-
     /**
      * @return Which team this chess piece belongs to
      */
@@ -120,255 +281,70 @@ public class ChessPiece {
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
         ArrayList<ChessMove> moves = new ArrayList<>();
         ChessPiece currentPiece = board.getPiece(myPosition);
-        ChessPiece.PieceType currentPieceType = currentPiece.getPieceType();
-        if(currentPieceType == PieceType.KING) {
-            moves.addAll(kingMovement(myPosition, board));
-        }
-        if(currentPieceType == PieceType.BISHOP || currentPieceType == PieceType.QUEEN) {
-            moves.addAll(diagonalMovement(myPosition, board));
-        }
-        if(currentPieceType == PieceType.ROOK || currentPieceType == PieceType.QUEEN) {
-            moves.addAll(verticalMovement(myPosition, board));
-        }
-        if(currentPieceType == PieceType.KNIGHT ) {
-           moves.addAll(knightMovement(myPosition, board));
-        }
-        if(currentPieceType == PieceType.PAWN) {
-            moves.addAll(pawnMovement(myPosition, board));
-        }
-
-        moves.removeAll(Collections.singleton(null));
-        return moves;
-    }
-
-    private ArrayList<ChessMove> pawnMovement(ChessPosition myPosition, ChessBoard board){
-        ArrayList<ChessMove> pawnMoves = new ArrayList<>();
-        ArrayList<ChessMove> nullList = new ArrayList<>();
-        nullList.add(null);
-        int i = rowToArray(myPosition.getRow());
-        int j = colToArray(myPosition.getColumn());
-        ChessPiece currentPiece = board.getPiece(myPosition);
-        ChessGame.TeamColor currentTeamColor = currentPiece.getTeamColor();
-        Predicate<ChessGame.TeamColor> isBlack = x -> (x == ChessGame.TeamColor.BLACK);
-        if(isBlack.test(currentTeamColor)){
-            // Check move 2, regular advance, take left/right
-            pawnMoves.add((i == 1) ? advancePawn(board, myPosition, i+1, i+2, j) : null);
-            pawnMoves.addAll((DR.test(i)) ? addPawnMove(board, myPosition, i+1, j, false) : nullList);
-            pawnMoves.addAll((DR.test(i) && UL.test(j)) ? addPawnMove(board, myPosition, i+1, j-1, true) : nullList);
-            pawnMoves.addAll((DR.test(i) && DR.test(j)) ? addPawnMove(board, myPosition, i+1, j+1, true) : nullList);
-        }
-        else{
-            // Check move 2, regular advance, take left/right
-            pawnMoves.add((i == 6) ? advancePawn(board, myPosition, i-1, i-2, j) : null);
-            pawnMoves.addAll((UL.test(i)) ? addPawnMove(board, myPosition, i-1, j, false) : nullList);
-            pawnMoves.addAll((UL.test(i) && UL.test(j)) ? addPawnMove(board, myPosition, i-1, j-1, true) : nullList);
-            pawnMoves.addAll((UL.test(i) && DR.test(j)) ? addPawnMove(board, myPosition, i-1, j+1, true) : nullList);
-        }
-        return pawnMoves;
-    }
-
-    private ArrayList<ChessMove> knightMovement(ChessPosition myPosition, ChessBoard board){
-        ArrayList<ChessMove> knightMoves = new ArrayList<>();
-        int i = rowToArray(myPosition.getRow());
-        int j = colToArray(myPosition.getColumn());
-        // up 2 (left/right 1)
-        knightMoves.add((UL_2.test(i) && UL.test(j)) ? addMove(board, myPosition, i-2, j-1) : null);
-        knightMoves.add((UL_2.test(i) && DR.test(j)) ? addMove(board, myPosition, i-2, j+1) : null);
-        // down 2 (left/right 1)
-        knightMoves.add((DR_2.test(i) && UL.test(j)) ? addMove(board, myPosition, i+2, j-1) : null);
-        knightMoves.add((DR_2.test(i) && DR.test(j)) ? addMove(board, myPosition, i+2, j+1) : null);
-        // left 2 (up/down 1)
-        knightMoves.add((UL_2.test(j) && UL.test(i)) ? addMove(board, myPosition, i-1, j-2) : null);
-        knightMoves.add((UL_2.test(j) && DR.test(i)) ? addMove(board, myPosition, i+1, j-2) : null);
-        // right 2 (up/down 1)
-        knightMoves.add((DR_2.test(j) && UL.test(i)) ? addMove(board, myPosition, i-1, j+2) : null);
-        knightMoves.add((DR_2.test(j) && DR.test(i)) ? addMove(board, myPosition, i+1, j+2) : null);
-        return knightMoves;
-    }
-
-    private ArrayList<ChessMove> diagonalMovement(ChessPosition myPosition, ChessBoard board){
-        int i = rowToArray(myPosition.getRow());
-        int j = colToArray(myPosition.getColumn());
-        ArrayList<ChessMove> diagonalMoves = new ArrayList<>();
-        ArrayList<ChessMove> nullList = new ArrayList<>();
-        nullList.add(null);
-        // up left
-        diagonalMoves.addAll((UL.test(i) && UL.test(j)) 
-            ? linearMovement(myPosition, board, i, j, Directions.UP_LEFT, UL_MOVE, UL_MOVE) 
-            : nullList);
-        // up right
-        diagonalMoves.addAll((UL.test(i) && DR.test(j)) 
-            ? linearMovement(myPosition, board, i, j, Directions.UP_RIGHT, UL_MOVE, DR_MOVE) 
-            : nullList);
-        // down left
-        diagonalMoves.addAll((DR.test(i) && UL.test(j)) 
-            ? linearMovement(myPosition, board, i, j, Directions.DOWN_LEFT, DR_MOVE, UL_MOVE) 
-            : nullList);
-        // down right
-        diagonalMoves.addAll((DR.test(i) && DR.test(j)) 
-            ? linearMovement(myPosition, board, i, j, Directions.DOWN_RIGHT, DR_MOVE, DR_MOVE) 
-            : nullList);
-        return diagonalMoves;
-    }
-
-    private ArrayList<ChessMove> verticalMovement(ChessPosition myPosition, ChessBoard board){
-        int i = rowToArray(myPosition.getRow());
-        int j = colToArray(myPosition.getColumn());
-        ArrayList<ChessMove> vertMoves = new ArrayList<>();
-        ArrayList<ChessMove> nullList = new ArrayList<>();
-        nullList.add(null);
-        // up
-        vertMoves.addAll((UL.test(i)) ? linearMovement(myPosition, board, i, j, Directions.UP, UL_MOVE, NOP) : nullList);
-        // down
-        vertMoves.addAll((DR.test(i)) ? linearMovement(myPosition, board, i, j, Directions.DOWN, DR_MOVE, NOP) : nullList);
-        // left
-        vertMoves.addAll((UL.test(j)) ? linearMovement(myPosition, board, i, j, Directions.LEFT, NOP, UL_MOVE) : nullList);
-        // right
-        vertMoves.addAll((DR.test(j)) ? linearMovement(myPosition, board, i, j, Directions.RIGHT, NOP, DR_MOVE) : nullList);
-        return vertMoves;
-    }
-
-    private ArrayList<ChessMove> linearMovement(ChessPosition myPosition, ChessBoard board, int i, int j, ChessPiece.Directions dir, 
-        Predicate<Integer> cond1, Predicate<Integer> cond2){
-
-        ArrayList<ChessMove> linearMoves =  new ArrayList<>();
-        ChessPiece currentPiece = board.getPiece(myPosition);
-        ChessGame.TeamColor currentTeamColor = currentPiece.getTeamColor();
-        int iTemp = switch(dir) {
-            case UP -> i-1;
-            case DOWN -> i+1;
-            case DOWN_LEFT -> i+1;
-            case DOWN_RIGHT -> i+1;
-            case LEFT -> i;
-            case RIGHT -> i;
-            case UP_LEFT -> i-1;
-            case UP_RIGHT -> i-1;
-        };
-        int jTemp = switch(dir){
-            case UP -> j;
-            case DOWN -> j;
-            case DOWN_LEFT -> j-1;
-            case DOWN_RIGHT -> j+1;
-            case LEFT -> j-1;
-            case RIGHT -> j+1;
-            case UP_LEFT -> j-1;
-            case UP_RIGHT -> j+1;
-        };
-
-
-        do{
-            ChessPiece piece = board.getPiecebyIndex(iTemp, jTemp);
-            if(piece == null){
-                linearMoves.add(addMove(board, myPosition, iTemp, jTemp));
-                // update iTemp or jTemp
-                iTemp = (dir == Directions.UP || dir == Directions.UP_LEFT || dir == Directions.UP_RIGHT) ? iTemp-1
-                       : (dir == Directions.DOWN || dir == Directions.DOWN_LEFT || dir == Directions.DOWN_RIGHT) ? iTemp+1 
-                       : iTemp;
-                jTemp = (dir == Directions.LEFT || dir == Directions.UP_LEFT || dir == Directions.DOWN_LEFT) ? jTemp-1
-                       : (dir == Directions.RIGHT || dir == Directions.UP_RIGHT || dir == Directions.DOWN_RIGHT) ? jTemp+1 
-                       : jTemp;
-            }
-            else if(piece.getTeamColor() != currentTeamColor){
-                linearMoves.add(addMove(board, myPosition, iTemp, jTemp));
-                break;
+        int square = ChessBoard.squareOf(myPosition.getRow(), myPosition.getColumn());
+        long targets = moveTargets(board, currentPiece.getPieceType(), currentPiece.getTeamColor(), square);
+        while(targets != 0){
+            int target = Long.numberOfTrailingZeros(targets);
+            ChessPosition endPosition = ChessBoard.positionOf(target);
+            if(currentPiece.getPieceType() == PieceType.PAWN && isPromotionSquare(target)){
+                promoMoves(moves, myPosition, endPosition);
             }
             else{
-                break;
+                moves.add(new ChessMove(myPosition, endPosition));
             }
+            targets &= targets - 1;
         }
-        while(cond1.test(iTemp) && cond2.test(jTemp));
-
-        return linearMoves;
-    }
-
- 
-    private ArrayList<ChessMove> kingMovement(ChessPosition myPosition, ChessBoard board){
-        int i = rowToArray(myPosition.getRow());
-        int j = colToArray(myPosition.getColumn());
-        ArrayList<ChessMove> kingMoves = new ArrayList<>();
-        // up (left, straight, right)
-        if(UL.test(i)){
-            kingMoves.add((UL.test(j)) ? addMove(board, myPosition, i-1, j-1) : null);
-            kingMoves.add(addMove(board, myPosition, i-1, j));
-            kingMoves.add((DR.test(j)) ? addMove(board, myPosition, i-1, j+1) : null);
-        }
-        // down (left, straight, right)
-        if(DR.test(i)){
-            kingMoves.add((UL.test(j)) ? addMove(board, myPosition, i+1, j-1) : null);
-            kingMoves.add(addMove(board, myPosition, i+1, j));
-            kingMoves.add((DR.test(j)) ? addMove(board, myPosition, i+1, j+1) : null);
-        }
-        // Left, right
-        kingMoves.add((UL.test(j)) ? addMove(board, myPosition, i, j-1) : null);
-        kingMoves.add((DR.test(j)) ? addMove(board, myPosition, i, j+1) : null);
-        return kingMoves;
-    }
-
-    private ChessMove addMove(ChessBoard board, ChessPosition myPosition, int i, int j){
-        ChessPiece currentPiece = board.getPiece(myPosition);
-        ChessGame.TeamColor currentTeamColor = currentPiece.getTeamColor();
-        ChessPiece piece = board.getPiecebyIndex(i, j);
-        if(piece == null || piece.getTeamColor() != currentTeamColor){
-            ChessPosition endPosition = new ChessPosition(arrayToRow(i), arrayToCol(j));
-            return new ChessMove(myPosition, endPosition);
-        }
-        return null;
+        return moves;
     }
 
-    private ChessMove advancePawn(ChessBoard board, ChessPosition myPosition, int i1, int i2, int j){
-        ChessPiece piece = board.getPiecebyIndex(i1, j);
-        ChessPiece piece2 = board.getPiecebyIndex(i2,j);
-        if(piece == null && piece2 == null){
-            ChessPosition endPosition = new ChessPosition(arrayToRow(i2), arrayToCol(j));
-            return new ChessMove(myPosition, endPosition);
-        }
-        return null;
+    /**
+     * Squares a piece can move to, ignoring whether the move leaves its king in check
+     *
+     * @return bitboard of target squares (never includes the team's own pieces)
+     */
+    static long moveTargets(ChessBoard board, PieceType type, ChessGame.TeamColor teamColor, int square){
+        long occupied = board.getOccupancy();
+        return switch(type){
+            case KING -> KING_ATTACKS[square] & ~board.getOccupancy(teamColor);
+            case KNIGHT -> KNIGHT_ATTACKS[square] & ~board.getOccupancy(teamColor);
+            case BISHOP -> bishopAttacks(square, occupied) & ~board.getOccupancy(teamColor);
+            case ROOK -> rookAttacks(square, occupied) & ~board.getOccupancy(teamColor);
+            case QUEEN -> (bishopAttacks(square, occupied) | rookAttacks(square, occupied)) & ~board.getOccupancy(teamColor);
+            case PAWN -> pawnTargets(board, teamColor, square);
+        };
     }
 
-    private ArrayList<ChessMove> addPawnMove(ChessBoard board, ChessPosition myPosition, int i, int j, boolean take){
-        ChessPiece currentPiece = board.getPiece(myPosition);
-        ChessGame.TeamColor currentTeamColor = currentPiece.getTeamColor();
-        ChessPiece piece = board.getPiecebyIndex(i, j);
-        ArrayList<ChessMove> pawnMoves = new ArrayList<>();
-        if((take && piece != null && piece.getTeamColor() != currentTeamColor) || (!take && piece == null)){
-            ChessPosition endPosition = new ChessPosition(arrayToRow(i), arrayToCol(j));
-            if(currentTeamColor == ChessGame.TeamColor.BLACK && i == 7){
-                pawnMoves.addAll(promoMoves(myPosition, endPosition));
-            }
-            else if(currentTeamColor == ChessGame.TeamColor.WHITE && i == 0){
-                pawnMoves.addAll(promoMoves(myPosition, endPosition));
-            }
-            else{
-                pawnMoves.add(new ChessMove(myPosition, endPosition));
+    private static long pawnTargets(ChessBoard board, ChessGame.TeamColor teamColor, int square){
+        boolean isWhite = teamColor == ChessGame.TeamColor.WHITE;
+        int forward = isWhite ? 8 : -8;
+        int startRow = isWhite ? 1 : 6;
+        long empty = ~board.getOccupancy();
+        long targets = 0L;
+        // Regular advance, then move 2 from the starting row
+        int oneStep = square + forward;
+        if(oneStep >= 0 && oneStep < 64 && (empty & (1L << oneStep)) != 0){
+            targets |= 1L << oneStep;
+            int twoStep = oneStep + forward;
+            if((square >>> 3) == startRow && (empty & (1L << twoStep)) != 0){
+                targets |= 1L << twoStep;
             }
         }
-        return pawnMoves;
-    }
-    
-    private ArrayList<ChessMove> promoMoves(ChessPosition startPosition, ChessPosition endPosition){
-        //  Rook, Knight, Bishop, or Queen
-        ArrayList<ChessMove> proMoves = new ArrayList<>();
-        proMoves.add(new ChessMove(startPosition, endPosition, PieceType.ROOK));
-        proMoves.add(new ChessMove(startPosition, endPosition, PieceType.KNIGHT));
-        proMoves.add(new ChessMove(startPosition, endPosition, PieceType.BISHOP));
-        proMoves.add(new ChessMove(startPosition, endPosition, PieceType.QUEEN));
-        return proMoves;
-    }
-
-    private int rowToArray(int row){
-        return 8-row;
+        // Take left/right
+        ChessGame.TeamColor other = isWhite ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        return targets | (PAWN_ATTACKS[teamColor.ordinal()][square] & board.getOccupancy(other));
     }
 
-    private int arrayToRow(int i){
-        return 8-i;
+    static boolean isPromotionSquare(int square){
+        int row = square >>> 3;
+        return row == 0 || row == 7;
     }
 
-    private int colToArray(int col){
-        return col-1;
-    }
-
-    private int arrayToCol(int j){
-        return j+1;
+    private void promoMoves(ArrayList<ChessMove> moves, ChessPosition startPosition, ChessPosition endPosition){
+        //  Rook, Knight, Bishop, or Queen
+        moves.add(new ChessMove(startPosition, endPosition, PieceType.ROOK));
+        moves.add(new ChessMove(startPosition, endPosition, PieceType.KNIGHT));
+        moves.add(new ChessMove(startPosition, endPosition, PieceType.BISHOP));
+        moves.add(new ChessMove(startPosition, endPosition, PieceType.QUEEN));
     }
 
 
@@ -1,7 +1,5 @@
 package chess;
 
-import java.util.Objects;
-
 /**
  * Represents a single square position on a chess board
  * <p>
@@ -13,11 +11,34 @@ public class ChessPosition {
     private final int row;
     private final int col;
 
+    // Shared instances for the 64 squares, indexed by ChessBoard.squareOf
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    static {
+        for(int square = 0; square < 64; square++){
+            SQUARES[square] = new ChessPosition((square >>> 3) + 1, (square & 7) + 1);
+        }
+    }
+
     public ChessPosition(int row, int col) {
         this.row = row;
         this.col = col;
     }
 
+    /**
+     * Returns the shared instance for a square instead of allocating one
+     *
+     * @param row 1 codes for the bottom row
+     * @param col 1 codes for the left column
+     * @return cached position (a new one if off the board)
+     */
+    public static ChessPosition of(int row, int col) {
+        if(row < 1 || row > 8 || col < 1 || col > 8){
+            return new ChessPosition(row, col);
+        }
+        return SQUARES[((row - 1) << 3) | (col - 1)];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -45,7 +66,7 @@ public class ChessPosition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, col);
+        return 31 * row + col;
     }
 
     @Override
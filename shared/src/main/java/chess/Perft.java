@@ -0,0 +1,246 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth (perft)
+ * <p>
+ * Used to measure move generation speed and, against the known node counts
+ * of the reference positions, to check that the generator is still correct.
+ * Run main for a nodes-per-second report, or pass a FEN and a depth for a divide.
+ */
+public class Perft {
+
+    // Subtrees at most this deep are counted on one thread rather than split further
+    private static final int SEQUENTIAL_DEPTH = 3;
+
+    /**
+     * A position with its published node counts; nodes[d - 1] is perft(d)
+     */
+    public record Position(String name, String fen, long[] nodes) {}
+
+    public static final List<Position> REFERENCE_POSITIONS = List.of(
+        new Position("start", "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            new long[]{20, 400, 8902, 197281}),
+        new Position("kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            new long[]{48, 2039, 97862}),
+        new Position("endgame", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            new long[]{14, 191, 2812, 43238}),
+        new Position("promotions", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            new long[]{6, 264, 9467}),
+        new Position("talkchess", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            new long[]{44, 1486, 62379}),
+        new Position("middlegame", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            new long[]{46, 2079, 89890})
+    );
+
+    /**
+     * Counts leaf nodes using the packed, allocation-free move generator
+     *
+     * @param game position to search from (left unchanged)
+     * @param depth plies to search
+     * @return number of move sequences of that length
+     */
+    public static long perft(ChessGame game, int depth) {
+        if(depth < 1){
+            return 1;
+        }
+        return perft(game, depth, new int[depth + 1][ChessGame.MAX_MOVES]);
+    }
+
+    private static long perft(ChessGame game, int depth, int[][] buffers) {
+        int[] moves = buffers[depth];
+        int count = game.legalMoves(moves);
+        if(depth == 1){
+            return count;
+        }
+        long nodes = 0;
+        for(int i = 0; i < count; i++){
+            game.makeMove(moves[i]);
+            nodes += perft(game, depth - 1, buffers);
+            game.unmakeMove(moves[i]);
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts leaf nodes through the public API (validMoves per piece, then
+     * makeMove on a copy of the game made through FEN), for comparing against perft
+     */
+    public static long perftObjects(ChessGame game, int depth) {
+        if(depth < 1){
+            return 1;
+        }
+        long nodes = 0;
+        String fen = game.toFen();
+        for(ChessPosition position : game.getBoard().getTeamPositions(game.getTeamTurn())){
+            for(ChessMove move : game.validMoves(position)){
+                if(depth == 1){
+                    nodes++;
+                    continue;
+                }
+                ChessGame next = ChessGame.fromFen(fen);
+                try{
+                    next.makeMove(move);
+                }
+                catch(InvalidMoveException e){
+                    throw new IllegalStateException("validMoves returned a move makeMove rejects: " + move, e);
+                }
+                nodes += perftObjects(next, depth - 1);
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Splits perft by root move, for tracking down a wrong count
+     *
+     * @return node count below each root move, keyed by move (e.g. "e2e4")
+     */
+    public static Map<String, Long> divide(ChessGame game, int depth) {
+        Map<String, Long> split = new LinkedHashMap<>();
+        int[] moves = new int[ChessGame.MAX_MOVES];
+        int count = game.legalMoves(moves);
+        for(int i = 0; i < count; i++){
+            game.makeMove(moves[i]);
+            split.put(moveText(moves[i]), perft(game, depth - 1));
+            game.unmakeMove(moves[i]);
+        }
+        return split;
+    }
+
+    /**
+     * Counts leaf nodes like perft, spread over a fork-join pool
+     *
+     * @param game position to search from (left unchanged)
+     * @param depth plies to search
+     * @param parallelism number of worker threads
+     * @return number of move sequences of that length
+     */
+    public static long perftParallel(ChessGame game, int depth, int parallelism) {
+        if(depth < 1){
+            return 1;
+        }
+        return divideParallel(game, depth, parallelism).values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Like divide, with each root move searched as its own fork-join task.
+     * Every task works on its own copy of the position, built from FEN, and
+     * deep subtrees are split again so idle workers can steal them
+     *
+     * @param parallelism number of worker threads
+     * @return node count below each root move, keyed by move (e.g. "e2e4")
+     */
+    public static Map<String, Long> divideParallel(ChessGame game, int depth, int parallelism) {
+        ChessGame root = ChessGame.fromFen(game.toFen());
+        int[] moves = new int[ChessGame.MAX_MOVES];
+        int count = root.legalMoves(moves);
+        List<SubtreeTask> tasks = new ArrayList<>(count);
+        for(int i = 0; i < count; i++){
+            tasks.add(new SubtreeTask(root, moves[i], depth - 1));
+        }
+        try(ForkJoinPool pool = new ForkJoinPool(parallelism)){
+            for(SubtreeTask task : tasks){
+                pool.execute(task);
+            }
+            Map<String, Long> split = new LinkedHashMap<>();
+            for(int i = 0; i < count; i++){
+                split.put(moveText(moves[i]), tasks.get(i).join());
+            }
+            return split;
+        }
+    }
+
+    /**
+     * Node count below one move, searched on its own copy of the position
+     */
+    private static class SubtreeTask extends RecursiveTask<Long> {
+        private final String fen;
+        private final int depth;
+
+        private SubtreeTask(ChessGame parent, int move, int depth) {
+            parent.makeMove(move);
+            this.fen = parent.toFen();
+            parent.unmakeMove(move);
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            ChessGame game = ChessGame.fromFen(fen);
+            if(depth <= SEQUENTIAL_DEPTH){
+                return perft(game, depth);
+            }
+            int[] moves = new int[ChessGame.MAX_MOVES];
+            int count = game.legalMoves(moves);
+            List<SubtreeTask> children = new ArrayList<>(count);
+            for(int i = 0; i < count; i++){
+                children.add(new SubtreeTask(game, moves[i], depth - 1));
+            }
+            long nodes = 0;
+            for(SubtreeTask child : invokeAll(children)){
+                nodes += child.join();
+            }
+            return nodes;
+        }
+    }
+
+    private static String moveText(int move) {
+        ChessMove chessMove = ChessMove.fromPacked(move);
+        String text = chessMove.getStartPosition().toString() + chessMove.getEndPosition().toString();
+        if(chessMove.getPromotionPiece() != null){
+            text += ChessPiece.of(ChessGame.TeamColor.WHITE, chessMove.getPromotionPiece()).toString();
+        }
+        return text;
+    }
+
+    /**
+     * With no arguments, runs every reference position and reports nodes per second,
+     * then runs each at its deepest reference depth in parallel.
+     * With a FEN and a depth, prints the divide for that position; a third
+     * argument runs the divide on that many threads.
+     */
+    public static void main(String[] args) {
+        if(args.length >= 2){
+            ChessGame game = ChessGame.fromFen(args[0]);
+            int depth = Integer.parseInt(args[1]);
+            Map<String, Long> split = (args.length >= 3)
+                ? divideParallel(game, depth, Integer.parseInt(args[2])) : divide(game, depth);
+            long total = 0;
+            for(Map.Entry<String, Long> entry : split.entrySet()){
+                System.out.println(entry.getKey() + ": " + entry.getValue());
+                total += entry.getValue();
+            }
+            System.out.println("Nodes: " + total);
+            return;
+        }
+        for(Position position : REFERENCE_POSITIONS){
+            ChessGame game = ChessGame.fromFen(position.fen());
+            for(int depth = 1; depth <= position.nodes().length; depth++){
+                long start = System.nanoTime();
+                long nodes = perft(game, depth);
+                report(position, depth, nodes, System.nanoTime() - start, "");
+            }
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        for(Position position : REFERENCE_POSITIONS){
+            int depth = position.nodes().length;
+            long start = System.nanoTime();
+            long nodes = perftParallel(ChessGame.fromFen(position.fen()), depth, threads);
+            report(position, depth, nodes, System.nanoTime() - start, " (" + threads + " threads)");
+        }
+    }
+
+    private static void report(Position position, int depth, long nodes, long elapsed, String note) {
+        elapsed = Math.max(elapsed, 1);
+        String result = (nodes == position.nodes()[depth - 1]) ? "ok" : "EXPECTED " + position.nodes()[depth - 1];
+        System.out.printf("%-10s depth %d: %,12d nodes %8.1f ms %,14.0f nodes/s  %s%s%n", position.name(), depth,
+            nodes, elapsed / 1e6, nodes * 1e9 / elapsed, result, note);
+    }
+}
@@ -0,0 +1,39 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist position hashing
+ * <p>
+ * The seed is fixed so keys (and stored position hashes) are the same on every run
+ */
+final class Zobrist {
+
+    // PIECE_SQUARE[ChessBoard.pieceIndex(color, type)][square]
+    static final long[][] PIECE_SQUARE = new long[12][64];
+    static final long BLACK_TO_MOVE;
+    // CASTLING[rights] for each castling rights bitmask (see ChessGame), 0 for none
+    static final long[] CASTLING = new long[16];
+    // En passant square file, only hashed while a capture is possible
+    static final long[] EN_PASSANT_FILE = new long[8];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x240C4E55L);
+        for(int piece = 0; piece < 12; piece++){
+            for(int square = 0; square < 64; square++){
+                PIECE_SQUARE[piece][square] = random.nextLong();
+            }
+        }
+        BLACK_TO_MOVE = random.nextLong();
+        long[] castles = {random.nextLong(), random.nextLong(), random.nextLong(), random.nextLong()};
+        for(int rights = 1; rights < 16; rights++){
+            int castle = Integer.numberOfTrailingZeros(rights);
+            CASTLING[rights] = CASTLING[rights & (rights - 1)] ^ castles[castle];
+        }
+        for(int file = 0; file < 8; file++){
+            EN_PASSANT_FILE[file] = random.nextLong();
+        }
+    }
+
+    private Zobrist() {}
+}
@@ -5,7 +5,7 @@ import java.io.InputStreamReader;
 import java.util.HashMap;
 import java.util.Map;
 
-import com.google.gson.Gson;
+import serialization.Serializer;
 
 public class ResponseException extends Exception{
     private final int statusCode;
@@ -16,11 +16,11 @@ public class ResponseException extends Exception{
     }
 
     public String toJson(){
-        return new Gson().toJson(Map.of("message", getMessage(), "status", statusCode));
+        return Serializer.gson().toJson(Map.of("message", getMessage(), "status", statusCode));
     }
 
     public static ResponseException fromJson(InputStream stream) {
-        var map = new Gson().fromJson(new InputStreamReader(stream), HashMap.class);
+        var map = Serializer.gson().fromJson(new InputStreamReader(stream), HashMap.class);
         var status = ((Double)map.get("status")).intValue();
         String message = map.get("message").toString();
         return new ResponseException(status, message);
@@ -0,0 +1,265 @@
+package serialization;
+
+import java.io.IOException;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+/**
+ * Streaming Gson adapters that write the chess classes in compact text forms
+ * <ul>
+ * <li>ChessPosition: "e2"</li>
+ * <li>ChessPiece: FEN letter, upper case white ("P", "k")</li>
+ * <li>ChessMove: start and end square plus any promotion letter ("e2e4", "e7e8q")</li>
+ * <li>ChessBoard: FEN piece placement ("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR")</li>
+ * </ul>
+ * Each adapter also reads the reflective object form plain Gson writes, so
+ * JSON stored or sent before these adapters still loads.
+ */
+public final class ChessTypeAdapters {
+
+    private static final String PIECE_LETTERS = "kqbnrp";
+
+    private ChessTypeAdapters() {}
+
+    /**
+     * Registers every chess adapter on a builder
+     *
+     * @param builder builder to add the adapters to
+     * @return the same builder
+     */
+    public static GsonBuilder register(GsonBuilder builder) {
+        return builder
+            .registerTypeAdapter(ChessPosition.class, new PositionAdapter().nullSafe())
+            .registerTypeAdapter(ChessPiece.class, new PieceAdapter().nullSafe())
+            .registerTypeAdapter(ChessMove.class, new MoveAdapter().nullSafe())
+            .registerTypeAdapter(ChessBoard.class, new BoardAdapter().nullSafe());
+    }
+
+    public static class PositionAdapter extends TypeAdapter<ChessPosition> {
+        @Override
+        public void write(JsonWriter out, ChessPosition position) throws IOException {
+            if(onBoard(position)){
+                out.value(position.toString());
+            }
+            else{
+                out.beginObject().name("row").value(position.getRow()).name("col").value(position.getColumn()).endObject();
+            }
+        }
+
+        @Override
+        public ChessPosition read(JsonReader in) throws IOException {
+            if(in.peek() == JsonToken.STRING){
+                String square = in.nextString();
+                if(square.length() != 2){
+                    throw new JsonParseException("Invalid square: " + square);
+                }
+                return square(square, 0);
+            }
+            int row = 0;
+            int col = 0;
+            in.beginObject();
+            while(in.hasNext()){
+                switch(in.nextName()){
+                    case "row" -> row = in.nextInt();
+                    case "col" -> col = in.nextInt();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return ChessPosition.of(row, col);
+        }
+    }
+
+    public static class PieceAdapter extends TypeAdapter<ChessPiece> {
+        @Override
+        public void write(JsonWriter out, ChessPiece piece) throws IOException {
+            if(piece.getTeamColor() == null || piece.getPieceType() == null){
+                out.beginObject();
+                out.name("pieceColor").value(piece.getTeamColor() == null ? null : piece.getTeamColor().name());
+                out.name("type").value(piece.getPieceType() == null ? null : piece.getPieceType().name());
+                out.endObject();
+                return;
+            }
+            out.value(String.valueOf(letter(piece)));
+        }
+
+        @Override
+        public ChessPiece read(JsonReader in) throws IOException {
+            if(in.peek() == JsonToken.STRING){
+                String letter = in.nextString();
+                if(letter.length() != 1){
+                    throw new JsonParseException("Invalid piece: " + letter);
+                }
+                return piece(letter.charAt(0));
+            }
+            ChessGame.TeamColor color = null;
+            ChessPiece.PieceType type = null;
+            in.beginObject();
+            while(in.hasNext()){
+                String name = in.nextName();
+                if(in.peek() == JsonToken.NULL){
+                    in.nextNull();
+                    continue;
+                }
+                switch(name){
+                    case "pieceColor" -> color = ChessGame.TeamColor.valueOf(in.nextString());
+                    case "type" -> type = ChessPiece.PieceType.valueOf(in.nextString());
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return ChessPiece.of(color, type);
+        }
+    }
+
+    public static class MoveAdapter extends TypeAdapter<ChessMove> {
+        private final PositionAdapter positions = new PositionAdapter();
+
+        @Override
+        public void write(JsonWriter out, ChessMove move) throws IOException {
+            if(onBoard(move.getStartPosition()) && onBoard(move.getEndPosition())){
+                String text = move.getStartPosition().toString() + move.getEndPosition();
+                if(move.getPromotionPiece() != null){
+                    text += PIECE_LETTERS.charAt(move.getPromotionPiece().ordinal());
+                }
+                out.value(text);
+                return;
+            }
+            out.beginObject();
+            out.name("startPosition");
+            positions.nullSafe().write(out, move.getStartPosition());
+            out.name("endPosition");
+            positions.nullSafe().write(out, move.getEndPosition());
+            if(move.getPromotionPiece() != null){
+                out.name("promotionPiece").value(move.getPromotionPiece().name());
+            }
+            out.endObject();
+        }
+
+        @Override
+        public ChessMove read(JsonReader in) throws IOException {
+            if(in.peek() == JsonToken.STRING){
+                String text = in.nextString();
+                if(text.length() != 4 && text.length() != 5){
+                    throw new JsonParseException("Invalid move: " + text);
+                }
+                ChessPiece.PieceType promotion = null;
+                if(text.length() == 5){
+                    int index = PIECE_LETTERS.indexOf(Character.toLowerCase(text.charAt(4)));
+                    if(index < 0){
+                        throw new JsonParseException("Invalid move: " + text);
+                    }
+                    promotion = ChessPiece.PieceType.values()[index];
+                }
+                return new ChessMove(square(text, 0), square(text, 2), promotion);
+            }
+            ChessPosition start = null;
+            ChessPosition end = null;
+            ChessPiece.PieceType promotion = null;
+            in.beginObject();
+            while(in.hasNext()){
+                String name = in.nextName();
+                if(in.peek() == JsonToken.NULL){
+                    in.nextNull();
+                    continue;
+                }
+                switch(name){
+                    case "startPosition" -> start = positions.read(in);
+                    case "endPosition" -> end = positions.read(in);
+                    case "promotionPiece" -> promotion = ChessPiece.PieceType.valueOf(in.nextString());
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new ChessMove(start, end, promotion);
+        }
+    }
+
+    public static class BoardAdapter extends TypeAdapter<ChessBoard> {
+        private final PieceAdapter pieces = new PieceAdapter();
+
+        @Override
+        public void write(JsonWriter out, ChessBoard board) throws IOException {
+            out.value(board.toFen());
+        }
+
+        @Override
+        public ChessBoard read(JsonReader in) throws IOException {
+            if(in.peek() == JsonToken.STRING){
+                try{
+                    return ChessBoard.fromFen(in.nextString());
+                }
+                catch(IllegalArgumentException ex){
+                    throw new JsonParseException(ex.getMessage(), ex);
+                }
+            }
+            // Legacy form: {"board": [[piece or null, ...], ...]}, rank 8 first
+            ChessPiece[][] squares = new ChessPiece[8][8];
+            in.beginObject();
+            while(in.hasNext()){
+                if(!in.nextName().equals("board")){
+                    in.skipValue();
+                    continue;
+                }
+                in.beginArray();
+                for(int i = 0; in.hasNext(); i++){
+                    in.beginArray();
+                    for(int j = 0; in.hasNext(); j++){
+                        ChessPiece piece = pieces.nullSafe().read(in);
+                        if(piece != null && (piece.getTeamColor() == null || piece.getPieceType() == null)){
+                            throw new JsonParseException("Board piece is missing its color or type");
+                        }
+                        if(i < 8 && j < 8){
+                            squares[i][j] = piece;
+                        }
+                    }
+                    in.endArray();
+                }
+                in.endArray();
+            }
+            in.endObject();
+            ChessBoard board = new ChessBoard();
+            board.setBoard(squares);
+            return board;
+        }
+    }
+
+    private static boolean onBoard(ChessPosition position) {
+        return position != null && position.getRow() >= 1 && position.getRow() <= 8
+            && position.getColumn() >= 1 && position.getColumn() <= 8;
+    }
+
+    private static ChessPosition square(String text, int index) {
+        char file = text.charAt(index);
+        char rank = text.charAt(index + 1);
+        if(file < 'a' || file > 'h' || rank < '1' || rank > '8'){
+            throw new JsonParseException("Invalid square in: " + text);
+        }
+        return ChessPosition.of(rank - '0', file - 'a' + 1);
+    }
+
+    private static char letter(ChessPiece piece) {
+        char letter = PIECE_LETTERS.charAt(piece.getPieceType().ordinal());
+        return (piece.getTeamColor() == ChessGame.TeamColor.WHITE) ? Character.toUpperCase(letter) : letter;
+    }
+
+    private static ChessPiece piece(char letter) {
+        int index = PIECE_LETTERS.indexOf(Character.toLowerCase(letter));
+        if(index < 0){
+            throw new JsonParseException("Invalid piece: " + letter);
+        }
+        ChessGame.TeamColor color = Character.isUpperCase(letter) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        return ChessPiece.of(color, ChessPiece.PieceType.values()[index]);
+    }
+}
@@ -0,0 +1,65 @@
+package serialization;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import model.AuthData;
+import model.GameData;
+import model.UserData;
+import websocket.commands.ConnectCommand;
+import websocket.commands.HighlightCommand;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.RequestBoard;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ErrorMessage;
+import websocket.messages.HighlightMessage;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.NotificationMessage;
+import websocket.messages.ServerMessage;
+
+/**
+ * Holds the Gson instance shared by every serialization path in the client,
+ * server and shared code, with the chess type adapters registered. Gson is
+ * thread-safe once built, so one instance serves all threads; use it instead
+ * of new Gson().
+ * <p>
+ * Adapters for the model, command and message types are built when this
+ * class loads rather than on first use.
+ */
+public final class Serializer {
+
+    private static final Gson GSON = ChessTypeAdapters.register(new GsonBuilder()).create();
+
+    static {
+        preload(ChessGame.class, ChessBoard.class, ChessMove.class, ChessPiece.class, ChessPosition.class,
+            AuthData.class, GameData.class, UserData.class,
+            UserGameCommand.class, ConnectCommand.class, MakeMoveCommand.class, HighlightCommand.class, RequestBoard.class,
+            ServerMessage.class, LoadGameMessage.class, ErrorMessage.class, NotificationMessage.class, HighlightMessage.class);
+    }
+
+    private Serializer() {}
+
+    /**
+     * @return the shared Gson instance
+     */
+    public static Gson gson() {
+        return GSON;
+    }
+
+    /**
+     * Builds the shared instance's adapters for more types up front, for
+     * modules with their own request and result types
+     *
+     * @param types types that will be serialized
+     */
+    public static void preload(Class<?>... types) {
+        for(Class<?> type : types){
+            GSON.getAdapter(type);
+        }
+    }
+}
@@ -2,7 +2,7 @@ package websocket.messages;
 
 import java.util.Objects;
 
-import com.google.gson.Gson;
+import serialization.Serializer;
 
 /**
  * Represents a Message the server can send through a WebSocket
@@ -33,7 +33,7 @@ public class ServerMessage {
 
     @Override
     public String toString(){
-        return new Gson().toJson(this);
+        return Serializer.gson().toJson(this);
     }
 
     @Override
@@ -0,0 +1,35 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ChessBoardTests {
+
+    @Test
+    @DisplayName("addPiece rejects a piece missing its color or type")
+    public void addIncompletePiece(){
+        ChessBoard board = new ChessGame().getBoard();
+        ChessPosition e4 = new ChessPosition(4, 5);
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> board.addPiece(e4, new ChessPiece(ChessGame.TeamColor.WHITE, null)));
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> board.addPiece(e4, new ChessPiece(null, ChessPiece.PieceType.PAWN)));
+        Assertions.assertNull(board.getPiece(e4));
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR", board.toFen());
+    }
+
+    @Test
+    @DisplayName("A set board with an incomplete piece is rejected when read")
+    public void setIncompleteBoard(){
+        ChessBoard board = new ChessBoard();
+        ChessPiece[][] pieces = new ChessPiece[8][8];
+        pieces[7][4] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+        pieces[0][4] = new ChessPiece(ChessGame.TeamColor.BLACK, null);
+        board.setBoard(pieces);
+        Assertions.assertThrows(IllegalArgumentException.class, board::toFen);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> board.getKingLocation(ChessGame.TeamColor.WHITE));
+        pieces[0][4] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+        Assertions.assertEquals("4k3/8/8/8/8/8/8/4K3", board.toFen());
+    }
+}
@@ -0,0 +1,67 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+public class EncodingTests {
+
+    @Test
+    @DisplayName("Encoded games decode to the same position")
+    public void roundTrip(){
+        for(Perft.Position position : Perft.REFERENCE_POSITIONS){
+            ChessGame game = ChessGame.fromFen(position.fen());
+            ChessGame decoded = ChessGame.decode(game.encode());
+            Assertions.assertEquals(position.fen(), decoded.toFen(), position.name());
+            Assertions.assertEquals(game.getBoard(), decoded.getBoard(), position.name());
+            Assertions.assertEquals(game.getPositionKey(), decoded.getPositionKey(), position.name());
+        }
+    }
+
+    @Test
+    @DisplayName("Game state survives encoding mid game")
+    public void stateAfterMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        game.makeMove(new ChessMove(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null));
+        game.makeMove(new ChessMove(ChessPosition.of(1, 5), ChessPosition.of(2, 5), null));
+        game.makeMove(new ChessMove(ChessPosition.of(7, 4), ChessPosition.of(5, 4), null));
+        ChessGame decoded = ChessGame.decode(game.encode());
+        Assertions.assertEquals(game.toFen(), decoded.toFen());
+        Assertions.assertEquals(ChessPosition.of(6, 4), decoded.getEnPassantTarget());
+        Assertions.assertEquals(game.evaluateStatus(), decoded.evaluateStatus());
+    }
+
+    @Test
+    @DisplayName("Encoding is far smaller than the JSON form")
+    public void compact(){
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(31, game.encode().length);
+        Assertions.assertTrue(new Gson().toJson(game).length() > 10 * game.encode().length);
+    }
+
+    @Test
+    @DisplayName("Clocks past two bytes saturate instead of wrapping")
+    public void clockSaturates(){
+        ChessGame game = ChessGame.fromFen("8/8/8/4k3/8/8/8/4K3 w - - 70000 65536");
+        ChessGame read = ChessGame.decode(game.encode());
+        Assertions.assertEquals(65535, read.getHalfmoveClock());
+        Assertions.assertEquals(65535, read.getFullmoveNumber());
+    }
+
+    @Test
+    @DisplayName("Bytes that aren't an encoded game are rejected")
+    public void malformed(){
+        byte[] valid = new ChessGame().encode();
+        byte[] truncated = Arrays.copyOf(valid, valid.length - 1);
+        byte[] json = new Gson().toJson(new ChessGame()).getBytes();
+        byte[] badPiece = valid.clone();
+        badPiece[valid.length - 1] = (byte) 0xFF;
+        for(byte[] bytes : new byte[][]{truncated, json, badPiece, new byte[0]}){
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.decode(bytes));
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package chess;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FenTests {
+
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    @Test
+    @DisplayName("New game exports the starting FEN")
+    public void startingPosition(){
+        Assertions.assertEquals(START, new ChessGame().toFen());
+        Assertions.assertEquals(new ChessGame().getBoard(), ChessGame.fromFen(START).getBoard());
+    }
+
+    @Test
+    @DisplayName("FEN parses when ChessPiece initializes first")
+    public void pieceInitializedFirst() throws Exception{
+        // class initialization order only shows in a JVM that has not loaded either class yet
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process probe = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), InitOrderProbe.class.getName())
+            .redirectErrorStream(true)
+            .start();
+        Assertions.assertTrue(probe.waitFor(60, TimeUnit.SECONDS));
+        String output = new String(probe.getInputStream().readAllBytes());
+        Assertions.assertEquals(0, probe.exitValue(), output);
+    }
+
+    /**
+     * Touches ChessPiece before ChessBoard, as ServerMain does, then parses FEN
+     */
+    public static class InitOrderProbe {
+        public static void main(String[] args){
+            new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+            if(!START.equals(ChessGame.fromFen(START).toFen())){
+                System.exit(1);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("FEN round trips through ChessGame")
+    public void roundTrip(){
+        String[] fens = {
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w KQkq c6 0 2",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 12 47",
+            "r3k3/8/8/8/8/8/8/4K2R w Kq - 3 30",
+        };
+        for(String fen : fens){
+            Assertions.assertEquals(fen, ChessGame.fromFen(fen).toFen());
+        }
+    }
+
+    @Test
+    @DisplayName("Clock fields are optional")
+    public void optionalClocks(){
+        ChessGame game = ChessGame.fromFen("8/8/8/4k3/8/8/8/4K3 b - -");
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        Assertions.assertEquals(0, game.getHalfmoveClock());
+        Assertions.assertEquals(1, game.getFullmoveNumber());
+    }
+
+    @Test
+    @DisplayName("Moves update castling rights, en passant square and clocks")
+    public void movesUpdateState() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move("e2", "e4"));
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", game.toFen());
+        Assertions.assertEquals(ChessPosition.of(3, 5), game.getEnPassantTarget());
+        game.makeMove(move("g8", "f6"));
+        game.makeMove(move("e1", "e2"));
+        game.makeMove(move("h8", "g8"));
+        Assertions.assertEquals("rnbqkbr1/pppppppp/5n2/8/4P3/8/PPPPKPPP/RNBQ1BNR w q - 3 3", game.toFen());
+        Assertions.assertNull(game.getEnPassantTarget());
+        // Going back to the starting squares doesn't restore the rights
+        game.makeMove(move("e2", "e1"));
+        game.makeMove(move("g8", "h8"));
+        Assertions.assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPP1PPP/RNBQKBNR w q - 5 4", game.toFen());
+    }
+
+    @Test
+    @DisplayName("Rights are only exported while the king and rook are home")
+    public void rightsNeedPieces(){
+        ChessGame game = new ChessGame();
+        game.setBoard(ChessBoard.fromFen("4k3/8/8/8/8/8/8/R3K3"));
+        Assertions.assertEquals("4k3/8/8/8/8/8/8/R3K3 w Q - 0 1", game.toFen());
+    }
+
+    @Test
+    @DisplayName("Board placement round trips and matches addPiece")
+    public void boardPlacement(){
+        ChessBoard board = new ChessBoard();
+        board.addPiece(ChessPosition.of(1, 1), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(ChessPosition.of(8, 8), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+        Assertions.assertEquals("7q/8/8/8/8/8/8/K7", board.toFen());
+        Assertions.assertEquals(board, ChessBoard.fromFen("7q/8/8/8/8/8/8/K7"));
+    }
+
+    @Test
+    @DisplayName("Malformed FEN is rejected")
+    public void malformed(){
+        String[] fens = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+            "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "rnbqkbnr/ppppxppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQxq - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e4 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - zero 1",
+        };
+        for(String fen : fens){
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen), fen);
+        }
+    }
+
+    @Test
+    @DisplayName("Games saved before the FEN fields existed still load")
+    public void legacyJson(){
+        Gson gson = new Gson();
+        String json = gson.toJson(new ChessGame()).replaceAll(",\"(castlingRights|enPassantSquare|halfmoveClock|fullmoveNumber)\":-?\\d+", "");
+        Assertions.assertFalse(json.contains("castlingRights"));
+        Assertions.assertEquals(START, gson.fromJson(json, ChessGame.class).toFen());
+    }
+
+    @Test
+    @DisplayName("Position key includes castling rights and a capturable en passant square")
+    public void positionKey(){
+        long all = ChessGame.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1").getPositionKey();
+        long some = ChessGame.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w Kkq - 0 1").getPositionKey();
+        Assertions.assertNotEquals(all, some);
+        // e3 can't be captured, so it doesn't change the position
+        Assertions.assertEquals(ChessGame.fromFen("4k3/8/8/8/4P3/8/8/4K3 b - - 0 1").getPositionKey(),
+            ChessGame.fromFen("4k3/8/8/8/4P3/8/8/4K3 b - e3 0 1").getPositionKey());
+        Assertions.assertNotEquals(ChessGame.fromFen("4k3/8/8/8/3pP3/8/8/4K3 b - - 0 1").getPositionKey(),
+            ChessGame.fromFen("4k3/8/8/8/3pP3/8/8/4K3 b - e3 0 1").getPositionKey());
+    }
+
+    private static ChessMove move(String from, String to){
+        return new ChessMove(ChessPosition.of(from.charAt(1) - '0', from.charAt(0) - 'a' + 1),
+            ChessPosition.of(to.charAt(1) - '0', to.charAt(0) - 'a' + 1), null);
+    }
+}
@@ -0,0 +1,64 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class PerftTests {
+
+    @Test
+    @DisplayName("Reference positions match their known node counts")
+    public void referenceCounts(){
+        for(Perft.Position position : Perft.REFERENCE_POSITIONS){
+            ChessGame game = ChessGame.fromFen(position.fen());
+            for(int depth = 1; depth <= position.nodes().length; depth++){
+                Assertions.assertEquals(position.nodes()[depth - 1], Perft.perft(game, depth),
+                    position.name() + " perft(" + depth + ")");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Object API agrees with the packed generator")
+    public void objectApiAgrees(){
+        for(Perft.Position position : Perft.REFERENCE_POSITIONS){
+            ChessGame game = ChessGame.fromFen(position.fen());
+            Assertions.assertEquals(Perft.perft(game, 3), Perft.perftObjects(game, 3), position.name());
+        }
+    }
+
+    @Test
+    @DisplayName("Divide adds up to perft and leaves the game unchanged")
+    public void divideSums(){
+        ChessGame game = new ChessGame();
+        long key = game.getPositionKey();
+        long total = Perft.divide(game, 3).values().stream().mapToLong(Long::longValue).sum();
+        Assertions.assertEquals(8902, total);
+        Assertions.assertEquals(20, Perft.divide(game, 1).size());
+        Assertions.assertEquals(key, game.getPositionKey());
+    }
+
+    @Test
+    @DisplayName("Perft leaves castling rights, en passant square and clocks as they were")
+    public void perftRestoresState(){
+        for(Perft.Position position : Perft.REFERENCE_POSITIONS){
+            ChessGame game = ChessGame.fromFen(position.fen());
+            long key = game.getPositionKey();
+            Perft.perft(game, 3);
+            Assertions.assertEquals(position.fen(), game.toFen());
+            Assertions.assertEquals(key, game.getPositionKey());
+        }
+    }
+
+    @Test
+    @DisplayName("Parallel walk matches the sequential counts")
+    public void parallelAgrees(){
+        for(Perft.Position position : Perft.REFERENCE_POSITIONS){
+            ChessGame game = ChessGame.fromFen(position.fen());
+            int depth = position.nodes().length;
+            Assertions.assertEquals(position.nodes()[depth - 1], Perft.perftParallel(game, depth, 4), position.name());
+            Assertions.assertEquals(Perft.divide(game, 2), Perft.divideParallel(game, 2, 3), position.name());
+            Assertions.assertEquals(position.fen(), game.toFen());
+        }
+    }
+}
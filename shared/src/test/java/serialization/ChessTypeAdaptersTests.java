@@ -0,0 +1,112 @@
+package serialization;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.ServerMessage;
+
+public class ChessTypeAdaptersTests {
+
+    private final Gson gson = Serializer.gson();
+    private final Gson plain = new Gson();
+
+    @Test
+    @DisplayName("Chess objects are written in their compact forms")
+    public void compactForms(){
+        Assertions.assertEquals("\"e2\"", gson.toJson(ChessPosition.of(2, 5)));
+        Assertions.assertEquals("\"n\"", gson.toJson(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT)));
+        Assertions.assertEquals("\"e2e4\"", gson.toJson(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null)));
+        Assertions.assertEquals("\"b7a8q\"", gson.toJson(
+            new ChessMove(ChessPosition.of(7, 2), ChessPosition.of(8, 1), ChessPiece.PieceType.QUEEN)));
+        Assertions.assertEquals("\"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR\"", gson.toJson(new ChessGame().getBoard()));
+    }
+
+    @Test
+    @DisplayName("Compact forms read back to equal objects")
+    public void roundTrip(){
+        ChessMove promotion = new ChessMove(ChessPosition.of(2, 7), ChessPosition.of(1, 8), ChessPiece.PieceType.KNIGHT);
+        Assertions.assertEquals(promotion, gson.fromJson(gson.toJson(promotion), ChessMove.class));
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b KQkq - 0 1");
+        ChessGame read = gson.fromJson(gson.toJson(game), ChessGame.class);
+        Assertions.assertEquals(game.toFen(), read.toFen());
+        Assertions.assertEquals(game.getBoard(), read.getBoard());
+    }
+
+    @Test
+    @DisplayName("Legacy reflective JSON still reads")
+    public void legacyForms(){
+        ChessMove move = new ChessMove(ChessPosition.of(7, 2), ChessPosition.of(8, 1), ChessPiece.PieceType.ROOK);
+        Assertions.assertEquals(move, gson.fromJson(plain.toJson(move), ChessMove.class));
+        ChessPosition position = ChessPosition.of(3, 6);
+        Assertions.assertEquals(position, gson.fromJson(plain.toJson(position), ChessPosition.class));
+        ChessGame game = ChessGame.fromFen("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 0 1");
+        ChessGame read = gson.fromJson(plain.toJson(game), ChessGame.class);
+        Assertions.assertEquals(game.toFen(), read.toFen());
+        LoadGameMessage message = new LoadGameMessage(ServerMessage.ServerMessageType.LOAD_GAME, game.getBoard(), true);
+        Assertions.assertEquals(game.getBoard(), gson.fromJson(plain.toJson(message), LoadGameMessage.class).getBoard());
+    }
+
+    @Test
+    @DisplayName("Boards with incomplete pieces are rejected")
+    public void incompletePieces(){
+        String json = "{\"board\":[[{\"pieceColor\":\"WHITE\",\"type\":null}]]}";
+        Assertions.assertThrows(JsonParseException.class, () -> gson.fromJson(json, ChessBoard.class));
+    }
+
+    @Test
+    @DisplayName("Boards read when ChessPiece initializes first")
+    public void pieceInitializedFirst() throws Exception{
+        // class initialization order only shows in a JVM that has not loaded either class yet
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process probe = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), InitOrderProbe.class.getName())
+            .redirectErrorStream(true)
+            .start();
+        Assertions.assertTrue(probe.waitFor(60, TimeUnit.SECONDS));
+        String output = new String(probe.getInputStream().readAllBytes());
+        Assertions.assertEquals(0, probe.exitValue(), output);
+    }
+
+    /**
+     * Touches ChessPiece before anything else, as ServerMain does, then round trips a game
+     */
+    public static class InitOrderProbe {
+        public static void main(String[] args){
+            new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+            Gson gson = Serializer.gson();
+            ChessGame game = new ChessGame();
+            if(!game.getBoard().equals(gson.fromJson(gson.toJson(game), ChessGame.class).getBoard())){
+                System.exit(1);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Off-board positions fall back to the object form")
+    public void offBoard(){
+        ChessPosition position = new ChessPosition(9, 1);
+        ChessPosition read = gson.fromJson(gson.toJson(position), ChessPosition.class);
+        Assertions.assertEquals(9, read.getRow());
+        Assertions.assertEquals(1, read.getColumn());
+    }
+
+    @Test
+    @DisplayName("Malformed compact values are rejected")
+    public void malformed(){
+        Assertions.assertThrows(JsonParseException.class, () -> gson.fromJson("\"e9e4\"", ChessMove.class));
+        Assertions.assertThrows(JsonParseException.class, () -> gson.fromJson("\"e7e8x\"", ChessMove.class));
+        Assertions.assertThrows(JsonParseException.class, () -> gson.fromJson("\"x\"", ChessPiece.class));
+        Assertions.assertThrows(JsonParseException.class, () -> gson.fromJson("\"8/8\"", ChessBoard.class));
+    }
+}